@@ -0,0 +1,36 @@
+package ru.practicum.shareit.batch.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.dispatcher.BatchDispatcher;
+import ru.practicum.shareit.batch.dto.BatchOperationDto;
+import ru.practicum.shareit.batch.dto.BatchResultDto;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Controller
+@RequestMapping(path = "/batch")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class BatchGatewayController {
+    private final BatchDispatcher batchDispatcher;
+
+    @PostMapping
+    public Mono<ResponseEntity<List<BatchResultDto>>> executeBatch(@RequestBody @NotEmpty List<@Valid BatchOperationDto> operations,
+                                                                   HttpServletRequest request) {
+        log.info("Executing batch of {} operations", operations.size());
+        return batchDispatcher.execute(operations, request)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,227 @@
+package ru.practicum.shareit.batch.dispatcher;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.validation.BindException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.method.support.HandlerMethodArgumentResolverComposite;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ServletRequestDataBinderFactory;
+import org.springframework.web.util.ServletRequestPathUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.controller.BatchGatewayController;
+import ru.practicum.shareit.batch.dto.BatchOperationDto;
+import ru.practicum.shareit.batch.dto.BatchResultDto;
+import ru.practicum.shareit.client.ResponseBodies;
+import ru.practicum.shareit.exception.CustomBadRequestException;
+import ru.practicum.shareit.exception.CustomExceptionHandler;
+import ru.practicum.shareit.exception.ResponseErrorDto;
+import ru.practicum.shareit.ratelimit.RateLimitFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Выполняет подзапросы batch теми же контроллерами, что и обычные запросы: маршрутизация,
+// разбор аргументов и валидация (OnCreate, StartBeforeEnd, @Positive и т.д.) - средствами Spring MVC
+@Slf4j
+@Component
+public class BatchDispatcher {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+    // Пользователь задается только заголовком самого batch-запроса. Hop-by-hop заголовки и длина
+    // описывают соединение и тело batch-запроса, а не подзапроса
+    private static final Set<String> RESERVED_HEADERS = Stream.of(USER_ID, HttpHeaders.CONNECTION, "Keep-Alive",
+                    HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.TE,
+                    HttpHeaders.TRAILER, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE,
+                    HttpHeaders.CONTENT_LENGTH, HttpHeaders.HOST)
+            .map(name -> name.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final HandlerMethodArgumentResolverComposite argumentResolvers = new HandlerMethodArgumentResolverComposite();
+    private final WebDataBinderFactory binderFactory;
+    private final CustomExceptionHandler exceptionHandler;
+    private final ExceptionHandlerMethodResolver exceptionHandlerMethods =
+            new ExceptionHandlerMethodResolver(CustomExceptionHandler.class);
+    private final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final ObjectMapper objectMapper;
+    private final RateLimitFilter rateLimitFilter;
+    private final int maxOperations;
+    private final int maxConcurrency;
+
+    public BatchDispatcher(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                           RequestMappingHandlerAdapter handlerAdapter,
+                           CustomExceptionHandler exceptionHandler,
+                           ObjectMapper objectMapper,
+                           RateLimitFilter rateLimitFilter,
+                           @Value("${shareit-gateway.batch.max-operations:20}") int maxOperations,
+                           @Value("${shareit-gateway.batch.max-concurrency:8}") int maxConcurrency) {
+        this.handlerMapping = handlerMapping;
+        this.argumentResolvers.addResolvers(handlerAdapter.getArgumentResolvers());
+        this.binderFactory = new ServletRequestDataBinderFactory(null, handlerAdapter.getWebBindingInitializer());
+        this.exceptionHandler = exceptionHandler;
+        this.objectMapper = objectMapper;
+        this.rateLimitFilter = rateLimitFilter;
+        this.maxOperations = maxOperations;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Mono<List<BatchResultDto>> execute(List<BatchOperationDto> operations, HttpServletRequest batchRequest) {
+        if (operations.size() > maxOperations) {
+            throw new CustomBadRequestException("Batch must contain at most " + maxOperations + " operations");
+        }
+        // Валидация и вызов контроллеров идут сразу по порядку, запросы к серверу - конкурентно при подписке
+        List<Mono<BatchResultDto>> results = operations.stream()
+                .map(operation -> dispatch(operation, batchRequest))
+                .collect(Collectors.toList());
+        return Flux.fromIterable(results)
+                .flatMapSequential(Function.identity(), maxConcurrency)
+                .collectList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<BatchResultDto> dispatch(BatchOperationDto operation, HttpServletRequest batchRequest) {
+        try {
+            BatchSubRequest request = new BatchSubRequest(batchRequest, operation.getMethod(), operation.getPath(),
+                    headersFor(operation, batchRequest), bodyOf(operation));
+            // Операция стоит столько же токенов, сколько такой же одиночный запрос
+            long waitNanos = rateLimitFilter.tryAcquire(request);
+            if (waitNanos > 0) {
+                return Mono.just(new BatchResultDto(HttpStatus.TOO_MANY_REQUESTS.value(), objectMapper.valueToTree(
+                        RateLimitFilter.tooManyRequests(RateLimitFilter.retryAfterSeconds(waitNanos)))));
+            }
+            Object result = invokeHandler(request);
+            if (result instanceof Mono) {
+                return ((Mono<ResponseEntity<?>>) result)
+                        .map(this::toResult)
+                        .onErrorResume(e -> Mono.just(toResult(e)));
+            }
+            return Mono.just(toResult((ResponseEntity<?>) result));
+        } catch (Exception e) {
+            return Mono.just(toResult(e));
+        }
+    }
+
+    private Object invokeHandler(BatchSubRequest request) throws Exception {
+        ServletRequestPathUtils.parseAndCache(request);
+        HandlerExecutionChain chain = handlerMapping.getHandler(request);
+        if (chain == null || ((HandlerMethod) chain.getHandler()).getBeanType() == BatchGatewayController.class) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ResponseErrorDto("Not Found", "No handler for " + request.getMethod() + " "
+                            + request.getServletPath()));
+        }
+        if (!returnsResponseEntity((HandlerMethod) chain.getHandler())) {
+            // Потоковые ответы (Flux событий и т.п.) в результат операции не укладываются
+            return ResponseEntity.badRequest()
+                    .body(new ResponseErrorDto("Bad Request", "Operation not supported in batch: "
+                            + request.getMethod() + " " + request.getServletPath()));
+        }
+        InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod((HandlerMethod) chain.getHandler());
+        handlerMethod.setHandlerMethodArgumentResolvers(argumentResolvers);
+        handlerMethod.setDataBinderFactory(binderFactory);
+        handlerMethod.setParameterNameDiscoverer(parameterNameDiscoverer);
+        return handlerMethod.invokeForRequest(new ServletWebRequest(request), new ModelAndViewContainer());
+    }
+
+    // Поддерживаются только ResponseEntity и Mono<ResponseEntity>: их результат dispatch превращает в BatchResultDto
+    private static boolean returnsResponseEntity(HandlerMethod handler) {
+        ResolvableType returnType = ResolvableType.forMethodParameter(handler.getReturnType());
+        if (Mono.class.isAssignableFrom(returnType.toClass())) {
+            returnType = returnType.getGeneric(0);
+        }
+        return ResponseEntity.class.isAssignableFrom(returnType.toClass());
+    }
+
+    private HttpHeaders headersFor(BatchOperationDto operation, HttpServletRequest batchRequest) {
+        HttpHeaders headers = new HttpHeaders();
+        if (batchRequest.getHeader(USER_ID) != null) {
+            headers.set(USER_ID, batchRequest.getHeader(USER_ID));
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        operation.getHeaders().forEach((name, value) -> {
+            if (RESERVED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                log.debug("Batch operation header {} ignored", name);
+            } else {
+                headers.set(name, value);
+            }
+        });
+        return headers;
+    }
+
+    private byte[] bodyOf(BatchOperationDto operation) throws JsonProcessingException {
+        return operation.getBody() == null ? new byte[0] : objectMapper.writeValueAsBytes(operation.getBody());
+    }
+
+    private BatchResultDto toResult(ResponseEntity<?> response) {
+        return new BatchResultDto(response.getStatusCodeValue(), ResponseBodies.toJson(objectMapper, response));
+    }
+
+    // Ошибки подзапроса превращаются в статус так же, как у одиночного запроса
+    private BatchResultDto toResult(Throwable e) {
+        Method handler = e instanceof Exception ? exceptionHandlerMethods.resolveMethod((Exception) e) : null;
+        if (handler != null && handler.getParameterTypes()[0].isInstance(e)) {
+            ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(handler, ResponseStatus.class);
+            Object body = ReflectionUtils.invokeMethod(handler, exceptionHandler, e);
+            return new BatchResultDto(status.code().value(), objectMapper.valueToTree(body));
+        }
+        HttpStatus status = statusOf(e);
+        if (status.is5xxServerError()) {
+            log.error("Batch sub-request failed", e);
+        } else {
+            log.warn("Batch sub-request rejected: {}", e.getMessage());
+        }
+        return new BatchResultDto(status.value(),
+                objectMapper.valueToTree(new ResponseErrorDto(status.getReasonPhrase(), e.getMessage())));
+    }
+
+    private static HttpStatus statusOf(Throwable e) {
+        if (e instanceof ResponseStatusException) {
+            return ((ResponseStatusException) e).getStatus();
+        } else if (e instanceof HttpRequestMethodNotSupportedException) {
+            return HttpStatus.METHOD_NOT_ALLOWED;
+        } else if (e instanceof HttpMediaTypeNotSupportedException) {
+            return HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+
+        } else if (e instanceof BindException
+                || e instanceof ServletRequestBindingException
+                || e instanceof HttpMessageNotReadableException
+                || e instanceof TypeMismatchException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
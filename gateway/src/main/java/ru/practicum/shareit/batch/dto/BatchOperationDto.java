@@ -0,0 +1,33 @@
+package ru.practicum.shareit.batch.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationDto {
+
+    @NotNull
+    private String method;
+
+    // Путь gateway вместе с параметрами, например /bookings/owner?state=ALL
+    @NotBlank
+    private String path;
+
+    // Дополняют заголовки batch-запроса. X-Sharer-User-Id и hop-by-hop заголовки отсюда игнорируются:
+    // пользователь всегда тот же, что у batch-запроса
+    @Builder.Default
+    private Map<String, String> headers = new HashMap<>();
+
+    private JsonNode body;
+}
@@ -1,61 +1,121 @@
 package ru.practicum.shareit.booking.client;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.cache.GatewayResponseCache;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseBodies;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final String ITEMS_RESOURCE = "/items";
+
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         WebClient.Builder builder,
+                         ClientHttpConnector connector,
+                         GatewayResponseCache cache,
+                         RequestCoalescer coalescer,
+                         ClientResilience resilience,
+                         ObjectMapper objectMapper) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .clientConnector(connector)
+                        .build(),
+                API_PREFIX,
+                cache,
+                coalescer,
+                resilience
         );
+        this.objectMapper = objectMapper;
     }
 
-    public ResponseEntity<Object> getBookings(long userId, String state, Integer from, Integer size) {
-        String url = "?state={state}&from={from}&size={size}";
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get(url, userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId, String state, Integer from, Integer size) {
+        return getBookings(userId, state, from, size, null, false);
     }
 
-    public ResponseEntity<Object> getBookingsByOwnerId(Long ownerId, String state, Integer from, Integer size) {
-        String url = "/owner?state={state}&from={from}&size={size}";
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get(url, ownerId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId, String state, Integer from, Integer size,
+                                                    @Nullable String cursor, boolean total) {
+        return get(pageQuery(cursor, total), userId, pageParameters(state, from, size, cursor, total));
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsByOwnerId(Long ownerId, String state, Integer from, Integer size) {
+        return getBookingsByOwnerId(ownerId, state, from, size, null, false);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsByOwnerId(Long ownerId, String state, Integer from, Integer size,
+                                                             @Nullable String cursor, boolean total) {
+        return get("/owner" + pageQuery(cursor, total), ownerId, pageParameters(state, from, size, cursor, total));
     }
 
-    public ResponseEntity<Object> bookItem(long userId, BookingRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookingRequestDto requestDto,
+                                                 @Nullable String idempotencyKey) {
+        // Владелец видит в вещи ближайшее бронирование, поэтому ее кэш устаревает
+        return evictAfter(post("", userId, requestDto, idempotencyKey), ITEMS_RESOURCE + "/" + requestDto.getItemId());
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> updateBooking(Long userId, Long bookingId, Boolean bookingStatus) {
+    public Mono<ResponseEntity<Object>> updateBooking(Long userId, Long bookingId, Boolean bookingStatus) {
         String url = String.format("/%d?approved=%s", bookingId, bookingStatus);
-        return patch(url, userId, null, null);
+        // Вещь бронирования известна только из ответа сервера
+        return evictAfter(patch(url, userId, null, null), this::bookedItemResources, ITEMS_RESOURCE);
+    }
+
+    // Отклоненный сервером запрос ничего не изменил. Если id вещи в ответе не нашелся,
+    // сбрасываем кэш всех вещей
+    private String[] bookedItemResources(ResponseEntity<Object> response) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return new String[0];
+        }
+        JsonNode body = ResponseBodies.toJson(objectMapper, response);
+        JsonNode itemId = body != null ? body.path("item").path("id") : null;
+        return itemId != null && itemId.canConvertToLong()
+                ? new String[]{ITEMS_RESOURCE + "/" + itemId.asLong()}
+                : new String[]{ITEMS_RESOURCE};
+    }
+
+    private static String pageQuery(@Nullable String cursor, boolean total) {
+        return "?state={state}&from={from}&size={size}"
+                + (cursor != null ? "&cursor={cursor}" : "")
+                + (total ? "&total=true" : "");
+    }
+
+    // Курсор сервер предпочитает from: с ним страница выбирается по ключу, а не через OFFSET
+    private static Map<String, Object> pageParameters(String state, Integer from, Integer size,
+                                                      @Nullable String cursor, boolean total) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        // Ответ с total и без него кэшируется и объединяется отдельно
+        if (total) {
+            parameters.put("total", true);
+        }
+        return parameters;
     }
-}
\ No newline at end of file
+}
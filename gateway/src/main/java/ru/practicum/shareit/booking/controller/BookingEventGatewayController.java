@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.event.BookingEventHub;
+
+// Изменения статусов бронирований пользователя, вместо опроса GET /bookings/{bookingId}
+@Controller
+@RequestMapping(path = "/bookings")
+@RequiredArgsConstructor
+public class BookingEventGatewayController {
+
+    public static final String USER_ID = "X-Sharer-User-Id";
+
+    private final BookingEventHub bookingEventHub;
+
+    @ResponseBody
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BookingEventDto>> subscribe(@RequestHeader(USER_ID) Long userId) {
+        return bookingEventHub.subscribe(userId);
+    }
+}
@@ -6,9 +6,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.enumeration.BookingState;
+import ru.practicum.shareit.client.BaseClient;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -24,41 +26,47 @@ public class BookingGatewayController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader(USER_ID) Long userId,
-                                              @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader(USER_ID) Long userId,
+                                                    @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                                    @RequestParam(name = "total", defaultValue = "false") boolean total) {
         BookingState.from(state).orElseThrow(() -> new IllegalStateException("Unknown state: " + state));
-        return bookingClient.getBookings(userId, state, from, size);
+        return bookingClient.getBookings(userId, state, from, size, cursor, total);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByOwnerId(@RequestHeader(USER_ID) Long ownerId,
-                                                       @RequestParam(required = false, defaultValue = "ALL") String state,
-                                                       @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                       @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingsByOwnerId(@RequestHeader(USER_ID) Long ownerId,
+                                                             @RequestParam(required = false, defaultValue = "ALL") String state,
+                                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                                             @RequestParam(name = "total", defaultValue = "false") boolean total) {
         BookingState.from(state).orElseThrow(() -> new IllegalStateException("Unknown state: " + state));
-        return bookingClient.getBookingsByOwnerId(ownerId, state, from, size);
+        return bookingClient.getBookingsByOwnerId(ownerId, state, from, size, cursor, total);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader(USER_ID) long userId,
-                                           @RequestBody @Valid BookingRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader(USER_ID) long userId,
+                                                 @RequestHeader(value = BaseClient.IDEMPOTENCY_KEY, required = false)
+                                                 String idempotencyKey,
+                                                 @RequestBody @Valid BookingRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
-        return bookingClient.bookItem(userId, requestDto);
+        return bookingClient.bookItem(userId, requestDto, idempotencyKey);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(USER_ID) long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader(USER_ID) long userId,
+                                                   @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBooking(@RequestHeader(USER_ID) Long userId,
-                                                @PathVariable Long bookingId,
-                                                @RequestParam(name = "approved") Boolean bookingStatus) {
+    public Mono<ResponseEntity<Object>> updateBooking(@RequestHeader(USER_ID) Long userId,
+                                                      @PathVariable Long bookingId,
+                                                      @RequestParam(name = "approved") Boolean bookingStatus) {
         log.info("Update booking id={}, userId={}", bookingId, userId);
         return bookingClient.updateBooking(userId, bookingId, bookingStatus);
     }
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.client.LoadBalancerProperties;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Раздача изменений бронирований подписчикам gateway. С каждой репликой сервера одно соединение,
+// событие уходит только подписчикам арендатора и владельца - поиск по id, без перебора всех подключений
+@Slf4j
+@Component
+public class BookingEventHub implements MeterBinder {
+
+    private static final ServerSentEvent<BookingEventDto> HEARTBEAT =
+            ServerSentEvent.<BookingEventDto>builder().comment("heartbeat").build();
+    private static final ParameterizedTypeReference<ServerSentEvent<BookingEventDto>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+    // Сколько событий держать для клиента, который не успевает их читать
+    private static final int MAX_PENDING_EVENTS = 32;
+
+    private final Map<Long, Set<FluxSink<ServerSentEvent<BookingEventDto>>>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final List<URI> serverUrls;
+    private final WebClient client;
+    private final Duration heartbeatInterval;
+    private final Disposable.Composite streams = Disposables.composite();
+
+    @Autowired
+    public BookingEventHub(LoadBalancerProperties properties,
+                           @Value("${shareit-server.url}") String serverUrl,
+                           ClientHttpConnector connector,
+                           @Value("${shareit-gateway.booking-events.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this(properties.getUrls().isEmpty() ? List.of(URI.create(serverUrl)) : properties.getUrls(),
+                WebClient.builder().clientConnector(connector).build(),
+                heartbeatInterval);
+    }
+
+    BookingEventHub(List<URI> serverUrls, WebClient client, Duration heartbeatInterval) {
+        this.serverUrls = serverUrls;
+        this.client = client;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        serverUrls.forEach(url -> streams.add(upstream(url).subscribe(this::dispatch)));
+        // Один таймер на всех подписчиков вместо таймера на каждое соединение
+        streams.add(Flux.interval(heartbeatInterval)
+                .subscribe(tick -> subscribers.values().forEach(sinks -> sinks.forEach(sink -> sink.next(HEARTBEAT)))));
+    }
+
+    @PreDestroy
+    public void stop() {
+        streams.dispose();
+        subscribers.values().forEach(sinks -> sinks.forEach(FluxSink::complete));
+    }
+
+    public Flux<ServerSentEvent<BookingEventDto>> subscribe(Long userId) {
+        return Flux.<ServerSentEvent<BookingEventDto>>create(sink -> {
+                    subscribers.compute(userId, (id, sinks) -> {
+                        Set<FluxSink<ServerSentEvent<BookingEventDto>>> result =
+                                sinks != null ? sinks : ConcurrentHashMap.newKeySet();
+                        result.add(sink);
+                        return result;
+                    });
+                    subscriberCount.incrementAndGet();
+                    sink.onDispose(() -> {
+                        subscriberCount.decrementAndGet();
+                        subscribers.computeIfPresent(userId, (id, sinks) -> {
+                            sinks.remove(sink);
+                            return sinks.isEmpty() ? null : sinks;
+                        });
+                    });
+                })
+                .onBackpressureBuffer(MAX_PENDING_EVENTS, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shareit.gateway.booking-events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open booking event streams")
+                .register(registry);
+    }
+
+    void dispatch(BookingEventDto event) {
+        ServerSentEvent<BookingEventDto> sse = ServerSentEvent.builder(event)
+                .event("booking")
+                .build();
+        send(event.getBookerId(), sse);
+        if (!Objects.equals(event.getOwnerId(), event.getBookerId())) {
+            send(event.getOwnerId(), sse);
+        }
+    }
+
+    int getSubscribers() {
+        return subscriberCount.get();
+    }
+
+    private void send(Long userId, ServerSentEvent<BookingEventDto> event) {
+        Set<FluxSink<ServerSentEvent<BookingEventDto>>> sinks = userId != null ? subscribers.get(userId) : null;
+        if (sinks != null) {
+            sinks.forEach(sink -> sink.next(event));
+        }
+    }
+
+    // Поток с реплики переподключается после обрыва; события за время переподключения теряются,
+    // клиент в этом случае перечитывает бронирование обычным GET
+    private Flux<BookingEventDto> upstream(URI serverUrl) {
+        URI eventsUrl = UriComponentsBuilder.fromUri(serverUrl).path("/bookings/events").build().toUri();
+        return client.get()
+                .uri(eventsUrl)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(EVENT_TYPE)
+                .doOnSubscribe(subscription -> log.info("Subscribing to booking events at {}", eventsUrl))
+                .concatWith(Mono.error(() -> new IllegalStateException("Booking event stream closed by server")))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Booking event stream at {} failed: {}",
+                                eventsUrl, signal.failure().getMessage())))
+                .mapNotNull(ServerSentEvent::data);
+    }
+}
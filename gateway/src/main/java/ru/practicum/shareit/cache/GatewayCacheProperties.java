@@ -0,0 +1,17 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.cache")
+public class GatewayCacheProperties {
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+    // Страхует от изменений, о которых gateway не узнает (например, смена имени владельца вещи)
+    private Duration ttl = Duration.ofSeconds(30);
+}
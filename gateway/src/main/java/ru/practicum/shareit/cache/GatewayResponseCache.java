@@ -0,0 +1,122 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Кэш успешных GET-ответов сервера. Ключ - путь с query и id пользователя,
+// поэтому ответы владельцу вещи и остальным пользователям хранятся раздельно
+@Slf4j
+@Component
+@EnableConfigurationProperties(GatewayCacheProperties.class)
+public class GatewayResponseCache implements MeterBinder {
+
+    private static final char USER_SEPARATOR = '|';
+
+    private final boolean enabled;
+    private final long maxLoadNanos;
+    private final Cache<String, CachedResponse> cache;
+    // Номер последней инвалидации по каждому ресурсу: "/items/1" -> 42. Ответ, загрузка которого
+    // началась раньше инвалидации его ресурса или любого из родительских, считается устаревшим
+    private final Cache<String, Long> evictions;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public GatewayResponseCache(GatewayCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxLoadNanos = properties.getTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        // Ответ живет не дольше ttl после загрузки, а загрузка длиннее ttl не кэшируется,
+        // поэтому отметка старше двух ttl уже ни на что не влияет
+        this.evictions = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl().multipliedBy(2))
+                .build();
+    }
+
+    public Mono<ResponseEntity<Object>> getOrLoad(String resource, Long userId,
+                                                  Supplier<Mono<ResponseEntity<Object>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            String key = resource + USER_SEPARATOR + userId;
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null) {
+                if (isFresh(resource, cached.loadSequence)) {
+                    return Mono.just(cached.response);
+                }
+                cache.asMap().remove(key, cached);
+            }
+            long loadSequence = sequence.get();
+            long loadStarted = System.nanoTime();
+            return loader.get()
+                    .doOnNext(response -> {
+                        if (response.getStatusCode().is2xxSuccessful()
+                                && System.nanoTime() - loadStarted <= maxLoadNanos
+                                && isFresh(resource, loadSequence)) {
+                            cache.put(key, new CachedResponse(response, loadSequence));
+                        }
+                    });
+        });
+    }
+
+    // Инвалидирует ресурс и вложенные пути: "/items/1" затрагивает и "/items/1?..." и "/items/1/...",
+    // но не "/items/10" и не другие ресурсы. Сами ответы удаляются при следующем чтении
+    public void evict(String... resources) {
+        if (!enabled) {
+            return;
+        }
+        long evictionSequence = sequence.incrementAndGet();
+        for (String resource : resources) {
+            evictions.put(resource, evictionSequence);
+            log.debug("Gateway cache evicted for resource {}", resource);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "gatewayResponses");
+    }
+
+    // Проверяет ресурс и его родителей по границам '/': для "/items/1?text=a" - "/items" и "/items/1"
+    private boolean isFresh(String resource, long loadSequence) {
+        int query = resource.indexOf('?');
+        String path = query >= 0 ? resource.substring(0, query) : resource;
+        int end = path.indexOf('/', 1);
+        while (end > 0) {
+            if (evictedAfter(path.substring(0, end), loadSequence)) {
+                return false;
+            }
+            end = path.indexOf('/', end + 1);
+        }
+        return !evictedAfter(path, loadSequence);
+    }
+
+    private boolean evictedAfter(String resource, long loadSequence) {
+        Long evictionSequence = evictions.getIfPresent(resource);
+        return evictionSequence != null && evictionSequence > loadSequence;
+    }
+
+    private static final class CachedResponse {
+        private final ResponseEntity<Object> response;
+        private final long loadSequence;
+
+        private CachedResponse(ResponseEntity<Object> response, long loadSequence) {
+            this.response = response;
+            this.loadSequence = loadSequence;
+        }
+    }
+}
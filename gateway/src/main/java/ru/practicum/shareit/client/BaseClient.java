@@ -2,116 +2,207 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.cache.GatewayResponseCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 public class BaseClient {
-    protected final RestTemplate rest;
-
-    public BaseClient(RestTemplate rest) {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    // Заголовки ответа сервера, которые имеют смысл для клиента gateway
+    private static final List<String> PASS_THROUGH_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.LOCATION,
+            "Idempotent-Replayed",
+            "X-Next-Cursor",
+            "X-Total-Count-Approximate"
+    );
+
+    protected final WebClient rest;
+    private final String apiPrefix;
+    private final GatewayResponseCache cache;
+    private final RequestCoalescer coalescer;
+    private final ClientResilience resilience;
+
+    public BaseClient(WebClient rest,
+                      String apiPrefix,
+                      GatewayResponseCache cache,
+                      RequestCoalescer coalescer,
+                      ClientResilience resilience) {
         this.rest = rest;
+        this.apiPrefix = apiPrefix;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.resilience = resilience;
+    }
+
+    protected Mono<ResponseEntity<Object>> cachedGet(String path, Long userId) {
+        return cache.getOrLoad(apiPrefix + path, userId, () -> get(path, userId, null));
+    }
+
+    // Сбрасывает кэш по ресурсам после того, как сервер обработал изменяющий запрос,
+    // и до того, как ответ увидит клиент: его следующее чтение не попадет в старый кэш
+    protected Mono<ResponseEntity<Object>> evictAfter(Mono<ResponseEntity<Object>> request, String... resources) {
+        return evictAfter(request, response -> resources, resources);
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    // Ресурсы определяются по ответу сервера. Если ответа нет (ошибка сети, отмена),
+    // неизвестно, применил ли сервер изменение, и сбрасываются ресурсы fallback
+    protected Mono<ResponseEntity<Object>> evictAfter(Mono<ResponseEntity<Object>> request,
+                                                      Function<ResponseEntity<Object>, String[]> resourcesOf,
+                                                      String... fallback) {
+        return request
+                .doOnNext(response -> cache.evict(resourcesOf.apply(response)))
+                .doOnError(e -> cache.evict(fallback))
+                .doOnCancel(() -> cache.evict(fallback));
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        String key = apiPrefix + path + (parameters != null ? new TreeMap<>(parameters) : "") + "|" + userId;
+        return coalescer.execute(key, () -> makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null));
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    // Ключ идемпотентности уходит на сервер как есть: повтор, попавший на другую реплику gateway
+    // или сервера, найдет первый ответ в общем хранилище сервера
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body, @Nullable String idempotencyKey) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, null, body, idempotencyKey);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
-        return prepareGatewayResponse(shareitServerResponse);
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, @Nullable String idempotencyKey) {
+        WebClient.RequestBodySpec request = rest.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId, idempotencyKey)));
+
+        WebClient.RequestHeadersSpec<?> requestEntity = body != null ? request.bodyValue(body) : request;
+        Mono<ResponseEntity<Object>> exchange = requestEntity.exchangeToMono(BaseClient::prepareGatewayResponse);
+        return method == HttpMethod.GET
+                ? resilience.protectHedged(apiPrefix, exchange)
+                : resilience.protect(apiPrefix, exchange);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    private HttpHeaders defaultHeaders(Long userId, @Nullable String idempotencyKey) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        if (idempotencyKey != null) {
+            headers.set(IDEMPOTENCY_KEY, idempotencyKey);
+        }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    // Тело ответа сервера отдаем клиенту байтами, без разбора в Object и обратной сериализации
+    private static Mono<ResponseEntity<Object>> prepareGatewayResponse(ClientResponse response) {
+        HttpHeaders headers = passThroughHeaders(response.headers().asHttpHeaders());
+
+        String contentEncoding = response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        return response.bodyToMono(byte[].class)
+                .map(body -> decode(body, contentEncoding))
+                .map(body -> ResponseEntity.status(response.rawStatusCode()).headers(headers).<Object>body(body))
+                .defaultIfEmpty(ResponseEntity.status(response.rawStatusCode()).headers(headers).build());
+    }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    // Сжатые сервером ответы распаковываются: они кэшируются и перекодируются, а клиенту
+    // gateway сжимает ответ заново по его Accept-Encoding
+    private static byte[] decode(byte[] body, @Nullable String contentEncoding) {
+        if (contentEncoding == null || body.length == 0 || "identity".equalsIgnoreCase(contentEncoding)) {
+            return body;
         }
+        try (InputStream in = "gzip".equalsIgnoreCase(contentEncoding)
+                ? new GZIPInputStream(new ByteArrayInputStream(body))
+                : new InflaterInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode " + contentEncoding + " response body", e);
+        }
+    }
 
-        return responseBuilder.build();
+    private static HttpHeaders passThroughHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : PASS_THROUGH_HEADERS) {
+            List<String> values = serverHeaders.get(name);
+            if (values != null) {
+                headers.put(name, values);
+            }
+        }
+        return headers;
     }
-}
\ No newline at end of file
+}
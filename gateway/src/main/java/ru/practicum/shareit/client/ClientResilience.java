@@ -0,0 +1,224 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// У каждого клиента свои circuit breaker и bulkhead: медленные /bookings не забирают запросы /users и /items
+@Slf4j
+@Component
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ClientResilience implements MeterBinder {
+
+    private final ResilienceProperties properties;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final RetryRegistry retries;
+    private final Map<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+    // Счетчики повторов и hedging создаются по мере появления клиентов, реестр приложения подключается позже
+    private final CompositeMeterRegistry meters = new CompositeMeterRegistry();
+
+    public ClientResilience(ResilienceProperties properties) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(properties.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+                .recordResult(ClientResilience::isServerError)
+                // Отказ bulkhead - не сбой сервера
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        this.properties = properties;
+        this.circuitBreakers = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        this.bulkheads = BulkheadRegistry.of(bulkheadConfig);
+        this.retries = RetryRegistry.ofDefaults();
+        retries.getEventPublisher().onEntryAdded(event -> event.getAddedEntry().getEventPublisher()
+                .onRetry(retry -> counter("shareit.gateway.retries", retry.getName()).increment()));
+    }
+
+    public Mono<ResponseEntity<Object>> protect(String clientName, Mono<ResponseEntity<Object>> call) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(clientName);
+        Bulkhead bulkhead = bulkheads.bulkhead(clientName);
+        RetryBudget budget = retryBudget(clientName);
+        // Circuit breaker снаружи: при разомкнутой цепи запрос не занимает место в bulkhead.
+        // Повтор снаружи обоих: каждая попытка заново проходит через них
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retries.retry(clientName, () -> retryConfig(clientName))))
+                .doOnSubscribe(subscription -> budget.deposit());
+    }
+
+    // Для идемпотентных чтений: если ответа нет дольше перцентиля задержки, отправляем второй запрос
+    // и берем тот ответ, что пришел первым
+    public Mono<ResponseEntity<Object>> protectHedged(String clientName, Mono<ResponseEntity<Object>> call) {
+        if (!properties.isHedgingEnabled()) {
+            return protect(clientName, call);
+        }
+        LatencyTracker latency = latencies.computeIfAbsent(clientName,
+                name -> new LatencyTracker(properties.getHedgingPercentile(), properties.getHedgingMinSamples()));
+        Mono<ResponseEntity<Object>> timedPrimary = timed(protect(clientName, call), latency);
+        return Mono.defer(() -> {
+            long percentileMillis = latency.percentileMillis();
+            if (percentileMillis < 0) {
+                return timedPrimary;
+            }
+            // Hedge уходит на другую реплику: балансировщик запоминает реплику основного запроса и исключает ее
+            AtomicReference<ServerInstance> route = new AtomicReference<>();
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            Mono<ResponseEntity<Object>> primary = timedPrimary
+                    .doOnError(e -> {
+                        primaryError.set(e);
+                        primaryFailed.tryEmitValue(true);
+                    })
+                    .contextWrite(Context.of(ServerLoadBalancer.PRIMARY_ROUTE, route));
+            // Основной запрос упал до задержки - hedge не отправляется, ошибка отдается сразу
+            Duration delay = Duration.ofMillis(Math.max(percentileMillis, properties.getHedgingMinDelay().toMillis()));
+            Mono<ResponseEntity<Object>> hedge = Mono.delay(delay)
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> sendHedge(clientName, call))
+                    .contextWrite(Context.of(ServerLoadBalancer.EXCLUDED_ROUTE, route));
+            // Первый ответ, а не первый сигнал: ошибка основного запроса не отменяет уже отправленный hedge.
+            // Если ответа не дал ни один, вызывающий получает ошибку основного, а не обертку firstWithValue
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(e -> primaryError.get() != null ? primaryError.get() : e);
+        });
+    }
+
+    public CircuitBreaker.State getState(String clientName) {
+        return circuitBreakers.circuitBreaker(clientName).getState();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+        TaggedRetryMetrics.ofRetryRegistry(retries).bindTo(registry);
+        bulkheads.getEventPublisher().onEntryAdded(event -> bindRejectedCounter(registry, event.getAddedEntry()));
+        bulkheads.getAllBulkheads().forEach(bulkhead -> bindRejectedCounter(registry, bulkhead));
+        meters.add(registry);
+    }
+
+    private Mono<ResponseEntity<Object>> sendHedge(String clientName, Mono<ResponseEntity<Object>> call) {
+        if (!retryBudget(clientName).tryWithdraw()) {
+            counter("shareit.gateway.retry.budget.exhausted", clientName).increment();
+            // Пустой hedge не выигрывает у основного запроса, firstWithValue просто ждет его
+            return Mono.empty();
+        }
+        counter("shareit.gateway.hedges.sent", clientName).increment();
+        return protect(clientName, call)
+                .doOnNext(response -> counter("shareit.gateway.hedges.won", clientName).increment());
+    }
+
+    private RetryConfig retryConfig(String clientName) {
+        return RetryConfig.custom()
+                .maxAttempts(properties.getMaxRetries() + 1)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(properties.getRetryBackoff(), 2.0, 0.5))
+                .retryOnException(e -> shouldRetry(clientName, e))
+                .build();
+    }
+
+    private boolean shouldRetry(String clientName, Throwable e) {
+        if (!isConnectionFailure(e)) {
+            return false;
+        }
+        if (!retryBudget(clientName).tryWithdraw()) {
+            log.warn("Retry budget of {} is exhausted, not retrying: {}", clientName, e.getMessage());
+            counter("shareit.gateway.retry.budget.exhausted", clientName).increment();
+            return false;
+        }
+        log.info("Connection to shareit server failed for {}, retrying: {}", clientName, e.getMessage());
+        return true;
+    }
+
+    private RetryBudget retryBudget(String clientName) {
+        return retryBudgets.computeIfAbsent(clientName,
+                name -> new RetryBudget(properties.getRetryBudgetRatio(), properties.getRetryBudgetReserve()));
+    }
+
+    private Counter counter(String name, String clientName) {
+        return Counter.builder(name)
+                .tag("name", clientName)
+                .register(meters);
+    }
+
+    private void bindRejectedCounter(MeterRegistry registry, Bulkhead bulkhead) {
+        Counter rejected = Counter.builder("shareit.gateway.bulkhead.rejected")
+                .description("Requests rejected because the client bulkhead was full")
+                .tag("name", bulkhead.getName())
+                .register(registry);
+        bulkhead.getEventPublisher().onCallRejected(event -> {
+            log.warn("Bulkhead {} is full, request rejected", event.getBulkheadName());
+            rejected.increment();
+        });
+    }
+
+    // Задержку основного запроса учитываем и когда его отменил выигравший hedge, иначе перцентиль занижается
+    private static Mono<ResponseEntity<Object>> timed(Mono<ResponseEntity<Object>> call, LatencyTracker latency) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doFinally(signal -> {
+                if (signal != SignalType.ON_ERROR) {
+                    latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            });
+        });
+    }
+
+    // Соединение не установлено - запрос до сервера не дошел
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isServerError(Object result) {
+        return result instanceof ResponseEntity && ((ResponseEntity<?>) result).getStatusCodeValue() >= 500;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+// Кольцо консистентного хэширования с виртуальными узлами: у каждой реплики много точек на кольце,
+// поэтому ключи делятся между репликами ровнее, а при выпадении реплики переезжают только ее ключи
+class ConsistentHashRing {
+    private final long[] points;
+    private final ServerInstance[] owners;
+
+    ConsistentHashRing(List<ServerInstance> instances, int virtualNodes) {
+        int size = instances.size() * virtualNodes;
+        long[] hashes = new long[size];
+        ServerInstance[] nodes = new ServerInstance[size];
+        for (int i = 0; i < instances.size(); i++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i * virtualNodes + v] = hash(instances.get(i).getUri() + "#" + v);
+                nodes[i * virtualNodes + v] = instances.get(i);
+            }
+        }
+        Integer[] order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong(index -> hashes[index]));
+        this.points = new long[size];
+        this.owners = new ServerInstance[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = nodes[order[i]];
+        }
+    }
+
+    // Первая по часовой стрелке от ключа реплика, подходящая под условие; null, если таких нет
+    ServerInstance find(String key, Predicate<ServerInstance> eligible) {
+        int start = Arrays.binarySearch(points, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = 0; i < points.length; i++) {
+            ServerInstance owner = owners[(start + i) % points.length];
+            if (eligible.test(owner)) {
+                return owner;
+            }
+        }
+        return null;
+    }
+
+    // FNV-1a с перемешиванием из MurmurHash3, чтобы соседние id пользователей расходились по кольцу
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
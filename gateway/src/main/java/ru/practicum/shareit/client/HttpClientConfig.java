@@ -0,0 +1,71 @@
+package ru.practicum.shareit.client;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.HttpComponentsClientHttpConnector;
+
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager gatewayConnectionManager(HttpClientProperties properties) {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(properties.getValidateAfterInactivity().toMillis()))
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient gatewayHttpClient(PoolingAsyncClientConnectionManager connectionManager,
+                                                      HttpClientProperties properties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout().toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeout().toMillis()))
+                .build();
+        TimeValue maxKeepAlive = TimeValue.ofMilliseconds(properties.getKeepAlive().toMillis());
+        return HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(serverKeepAlive) && serverKeepAlive.compareTo(maxKeepAlive) < 0
+                            ? serverKeepAlive
+                            : maxKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleEviction().toMillis()))
+                .build();
+    }
+
+    // Один коннектор на все клиенты, чтобы они делили общий пул соединений
+    @Bean
+    public ClientHttpConnector gatewayClientHttpConnector(CloseableHttpAsyncClient gatewayHttpClient) {
+        return new HttpComponentsClientHttpConnector(gatewayHttpClient);
+    }
+
+    // Все клиенты, собранные из WebClient.Builder, ходят на реплики сервера через балансировщик
+    @Bean
+    public WebClientCustomizer serverLoadBalancingCustomizer(ServerLoadBalancer serverLoadBalancer) {
+        return builder -> builder.filter(serverLoadBalancer);
+    }
+
+    @Bean
+    public WebClientCustomizer wireFormatCustomizer(HttpClientProperties properties) {
+        return builder -> builder.filter(properties.getWireFormat().requestFilter());
+    }
+}
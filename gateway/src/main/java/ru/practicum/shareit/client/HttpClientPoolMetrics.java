@@ -0,0 +1,33 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+@Component
+@RequiredArgsConstructor
+public class HttpClientPoolMetrics implements MeterBinder {
+
+    private final PoolingAsyncClientConnectionManager connectionManager;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "leased", PoolStats::getLeased);
+        gauge(registry, "pending", PoolStats::getPending);
+        gauge(registry, "available", PoolStats::getAvailable);
+        gauge(registry, "max", PoolStats::getMax);
+    }
+
+    private void gauge(MeterRegistry registry, String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("shareit.gateway.http.pool." + state, connectionManager,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description("Connections to shareit-server in state: " + state)
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+    // Общее число соединений в пуле
+    private int maxTotal = 200;
+    // Число соединений к одному хосту сервера
+    private int maxPerRoute = 100;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    // Сколько ждать свободное соединение из пула
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    // Проверять соединение перед выдачей, если оно простаивало дольше
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    // Закрывать соединения, простаивающие дольше
+    private Duration idleEviction = Duration.ofSeconds(30);
+    // Верхняя граница keep-alive, даже если сервер разрешает больше
+    private Duration keepAlive = Duration.ofSeconds(60);
+    // Формат тел запросов и ответов между gateway и сервером
+    private WireFormat wireFormat = WireFormat.SMILE;
+}
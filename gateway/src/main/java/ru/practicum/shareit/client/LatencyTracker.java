@@ -0,0 +1,44 @@
+package ru.practicum.shareit.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Скользящий перцентиль задержек по последним замерам; пересчитывается раз в RECOMPUTE_EVERY замеров
+class LatencyTracker {
+    private static final int WINDOW = 256;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final double percentile;
+    private final int minSamples;
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long percentileMillis = -1;
+
+    LatencyTracker(double percentile, int minSamples) {
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, WINDOW);
+    }
+
+    void record(long millis) {
+        long count = recorded.incrementAndGet();
+        samples.set((int) ((count - 1) % WINDOW), millis);
+        if (count >= minSamples && count % RECOMPUTE_EVERY == 0) {
+            recompute((int) Math.min(count, WINDOW));
+        }
+    }
+
+    // -1, пока замеров слишком мало
+    long percentileMillis() {
+        return percentileMillis;
+    }
+
+    private void recompute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        percentileMillis = sorted[(int) Math.min(size - 1, Math.ceil(percentile * size) - 1)];
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.load-balancer")
+public class LoadBalancerProperties {
+    // Реплики shareit-server; если список пуст, используется shareit-server.url
+    private List<URI> urls = new ArrayList<>();
+    private String healthCheckPath = "/actuator/health";
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+    // Сколько ошибок подряд (5xx, таймауты, отказ соединения) выводят реплику из ротации и на сколько
+    private int consecutiveErrors = 5;
+    private Duration ejectionTime = Duration.ofSeconds(30);
+    private Routing routing = Routing.LEAST_OUTSTANDING;
+    // Для CONSISTENT_HASH: точек реплики на кольце и допустимое превышение средней нагрузки
+    private int virtualNodes = 160;
+    private double loadFactor = 1.25;
+
+    public enum Routing {
+        // Меньше всего запросов в работе из двух случайных реплик
+        LEAST_OUTSTANDING,
+        // Пользователь закреплен за репликой, чтобы ее кэши его данных оставались горячими
+        CONSISTENT_HASH
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Одинаковые одновременные GET-запросы (с тем же пользователем) получают ответ одного запроса к серверу
+@Slf4j
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration timeout;
+
+    public RequestCoalescer(@Value("${shareit-gateway.coalescing.enabled:true}") boolean enabled,
+                            @Value("${shareit-gateway.coalescing.timeout:10s}") Duration timeout) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    public Mono<ResponseEntity<Object>> execute(String key, Supplier<Mono<ResponseEntity<Object>>> request) {
+        if (!enabled) {
+            return request.get();
+        }
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> share(k, request)));
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Mono<ResponseEntity<Object>> share(String key, Supplier<Mono<ResponseEntity<Object>>> request) {
+        log.debug("Sending shared request {}", key);
+        AtomicReference<Mono<ResponseEntity<Object>>> shared = new AtomicReference<>();
+        Runnable release = () -> inFlight.remove(key, shared.get());
+        // share() отменяет запрос к серверу, только когда отписались все ожидающие, и тогда ключ тоже
+        // освобождается. При завершении ключ освобождается до того, как ответ увидят ожидающие.
+        // remove(key, value) не удалит уже новый запрос с тем же ключом
+        shared.set(request.get()
+                .timeout(timeout)
+                .doOnTerminate(release)
+                .doOnCancel(release)
+                .share());
+        return shared.get();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.resilience")
+public class ResilienceProperties {
+    // Процент неудачных вызовов (таймауты и 5xx), при котором размыкается цепь
+    private float failureRateThreshold = 50;
+    private int slidingWindowSize = 20;
+    private int minimumNumberOfCalls = 10;
+    private Duration waitInOpenState = Duration.ofSeconds(10);
+    private int permittedCallsInHalfOpenState = 3;
+    // Одновременных запросов к серверу от одного клиента
+    private int maxConcurrentCalls = 50;
+    // Повторы только при ошибке соединения: запрос до сервера не дошел, повторять безопасно
+    private int maxRetries = 2;
+    private Duration retryBackoff = Duration.ofMillis(100);
+    // Доля повторов от потока запросов и запас повторов на всплеск
+    private double retryBudgetRatio = 0.1;
+    private int retryBudgetReserve = 10;
+    // Hedging GET-запросов: второй запрос, если ответа нет дольше перцентиля задержки
+    private boolean hedgingEnabled = false;
+    private double hedgingPercentile = 0.95;
+    private Duration hedgingMinDelay = Duration.ofMillis(20);
+    private int hedgingMinSamples = 64;
+}
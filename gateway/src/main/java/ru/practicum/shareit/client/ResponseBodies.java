@@ -0,0 +1,50 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Разбор ответа сервера, который BaseClient отдает байтами как есть (JSON или Smile),
+// когда gateway нужно встроить его в свой ответ или прочитать из него поле
+@Slf4j
+public final class ResponseBodies {
+
+    private ResponseBodies() {
+    }
+
+    // Пустое тело - null, не-JSON тело встраивается строкой
+    @Nullable
+    public static JsonNode toJson(ObjectMapper objectMapper, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        if (body == null) {
+            return null;
+        }
+        if (!(body instanceof byte[])) {
+            return objectMapper.valueToTree(body);
+        }
+        byte[] bytes = (byte[]) body;
+        if (bytes.length == 0) {
+            return null;
+        }
+        MediaType contentType = response.getHeaders().getContentType();
+        if (WireFormat.isSmile(contentType)) {
+            bytes = WireFormat.smileToJson(bytes);
+            contentType = MediaType.APPLICATION_JSON;
+        }
+        if (contentType == null || MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            try {
+                return objectMapper.readTree(bytes);
+            } catch (IOException e) {
+                log.warn("Server response is not valid JSON: {}", e.getMessage());
+            }
+        }
+        return TextNode.valueOf(new String(bytes, StandardCharsets.UTF_8));
+    }
+}
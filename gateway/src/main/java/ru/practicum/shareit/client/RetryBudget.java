@@ -0,0 +1,41 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Бюджет повторов клиента: каждый запрос пополняет его на долю ratio, каждый повтор или hedge тратит единицу.
+// Когда сервер лежит, повторов не больше ratio от потока запросов плюс небольшой запас - без шторма повторов
+class RetryBudget {
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int reserve) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.maxBalance = reserve * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    void deposit() {
+        while (true) {
+            long current = balance.get();
+            long updated = Math.min(maxBalance, current + deposit);
+            if (current == updated || balance.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.client;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ServerInstance {
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveErrors = new AtomicInteger();
+    private final AtomicLong ejections = new AtomicLong();
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntilNanos;
+
+    ServerInstance(URI uri) {
+        this.uri = uri;
+    }
+
+    URI getUri() {
+        return uri;
+    }
+
+    int getOutstanding() {
+        return outstanding.get();
+    }
+
+    long getEjections() {
+        return ejections.get();
+    }
+
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    boolean isAvailable(long nowNanos) {
+        return healthy && nowNanos - ejectedUntilNanos >= 0;
+    }
+
+    void requestStarted() {
+        outstanding.incrementAndGet();
+    }
+
+    void requestFinished() {
+        outstanding.decrementAndGet();
+    }
+
+    void recordSuccess() {
+        consecutiveErrors.set(0);
+    }
+
+    // true, если ошибка вывела реплику из ротации
+    boolean recordError(int threshold, long nowNanos, long ejectionNanos) {
+        if (consecutiveErrors.incrementAndGet() < threshold) {
+            return false;
+        }
+        consecutiveErrors.set(0);
+        ejectedUntilNanos = nowNanos + ejectionNanos;
+        ejections.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
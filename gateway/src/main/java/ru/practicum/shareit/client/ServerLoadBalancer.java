@@ -0,0 +1,218 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+// Балансировка запросов gateway между репликами shareit-server: из двух случайных доступных реплик
+// выбирается та, у которой меньше запросов в работе (power of two choices). Реплика выходит из ротации,
+// если не проходит проверку /actuator/health или отвечает ошибками несколько раз подряд.
+// В режиме CONSISTENT_HASH запросы пользователя идут на его реплику по кольцу хэшей, пока она не перегружена
+@Slf4j
+@Component
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+public class ServerLoadBalancer implements ExchangeFilterFunction, MeterBinder {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+    // Ключи контекста Reactor для hedging (AtomicReference<ServerInstance>): основной запрос записывает
+    // выбранную реплику, hedge ее исключает. Атрибуты ClientRequest у них общие - это повторная подписка
+    // на тот же exchange, поэтому различаются они контекстом подписчика
+    static final String PRIMARY_ROUTE = ServerLoadBalancer.class.getName() + ".primaryRoute";
+    static final String EXCLUDED_ROUTE = ServerLoadBalancer.class.getName() + ".excludedRoute";
+
+    private final LoadBalancerProperties properties;
+    private final List<ServerInstance> instances;
+    private final ConsistentHashRing ring;
+    private final WebClient healthClient;
+    private Disposable healthChecks;
+
+    public ServerLoadBalancer(LoadBalancerProperties properties,
+                              @Value("${shareit-server.url}") String serverUrl,
+                              ClientHttpConnector connector) {
+        List<URI> urls = properties.getUrls().isEmpty() ? List.of(URI.create(serverUrl)) : properties.getUrls();
+        this.properties = properties;
+        this.instances = urls.stream()
+                .map(ServerInstance::new)
+                .collect(Collectors.toUnmodifiableList());
+        this.ring = new ConsistentHashRing(instances, properties.getVirtualNodes());
+        this.healthClient = WebClient.builder()
+                .clientConnector(connector)
+                .build();
+    }
+
+    @PostConstruct
+    public void startHealthChecks() {
+        healthChecks = Flux.interval(properties.getHealthCheckInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> checkHealth())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopHealthChecks() {
+        if (healthChecks != null) {
+            healthChecks.dispose();
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            AtomicReference<ServerInstance> excluded = context.getOrDefault(EXCLUDED_ROUTE, null);
+            ServerInstance instance = choose(request.headers().getFirst(USER_ID),
+                    excluded != null ? excluded.get() : null);
+            context.<AtomicReference<ServerInstance>>getOrEmpty(PRIMARY_ROUTE)
+                    .ifPresent(primary -> primary.set(instance));
+            URI routed = UriComponentsBuilder.fromUri(request.url())
+                    .scheme(instance.getUri().getScheme())
+                    .host(instance.getUri().getHost())
+                    .port(instance.getUri().getPort())
+                    .build(true)
+                    .toUri();
+            instance.requestStarted();
+            return next.exchange(ClientRequest.from(request).url(routed).build())
+                    .doOnNext(response -> record(instance, response.rawStatusCode() < 500))
+                    .doOnError(e -> record(instance, false))
+                    .doFinally(signal -> instance.requestFinished());
+        });
+    }
+
+    ServerInstance choose(String userId) {
+        return choose(userId, null);
+    }
+
+    // excluded - реплика, которую нужно обойти (туда ушел основной запрос hedge), если есть другие
+    ServerInstance choose(String userId, @Nullable ServerInstance excluded) {
+        if (properties.getRouting() == LoadBalancerProperties.Routing.CONSISTENT_HASH && userId != null) {
+            ServerInstance preferred = chooseByHash(userId, excluded);
+            if (preferred != null) {
+                return preferred;
+            }
+        }
+        return chooseLeastOutstanding(excluded);
+    }
+
+    // Bounded load: реплика пропускается, если у нее запросов в работе больше loadFactor от среднего,
+    // тогда ключ уходит к следующей по кольцу
+    private ServerInstance chooseByHash(String userId, @Nullable ServerInstance excluded) {
+        long now = System.nanoTime();
+        int total = 0;
+        int available = 0;
+        for (ServerInstance instance : instances) {
+            total += instance.getOutstanding();
+            if (instance.isAvailable(now)) {
+                available++;
+            }
+        }
+        if (available == 0) {
+            return null;
+        }
+        double capacity = Math.ceil(properties.getLoadFactor() * (total + 1) / available);
+        return ring.find(userId, instance -> instance != excluded
+                && instance.isAvailable(now) && instance.getOutstanding() < capacity);
+    }
+
+    private ServerInstance chooseLeastOutstanding(@Nullable ServerInstance excluded) {
+        long now = System.nanoTime();
+        List<ServerInstance> available = new ArrayList<>(instances.size());
+        for (ServerInstance instance : instances) {
+            if (instance.isAvailable(now)) {
+                available.add(instance);
+            }
+        }
+        // Если из ротации выпали все, лучше попробовать любую реплику, чем отказать сразу
+        List<ServerInstance> candidates = available.isEmpty() ? new ArrayList<>(instances) : available;
+        if (candidates.size() > 1) {
+            candidates.remove(excluded);
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServerInstance a = candidates.get(first);
+        ServerInstance b = candidates.get(second);
+        return a.getOutstanding() <= b.getOutstanding() ? a : b;
+    }
+
+    Mono<Void> checkHealth() {
+        return Flux.fromIterable(instances)
+                .flatMap(instance -> healthClient.get()
+                        .uri(instance.getUri().resolve(properties.getHealthCheckPath()))
+                        .exchangeToMono(response -> response.releaseBody()
+                                .thenReturn(response.statusCode().is2xxSuccessful()))
+                        .timeout(properties.getHealthCheckTimeout())
+                        .onErrorReturn(false)
+                        .doOnNext(healthy -> updateHealth(instance, healthy)))
+                .then();
+    }
+
+    List<ServerInstance> getInstances() {
+        return instances;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ServerInstance instance : instances) {
+            Gauge.builder("shareit.gateway.server.outstanding", instance, ServerInstance::getOutstanding)
+                    .description("Requests in flight to the shareit-server instance")
+                    .tag("instance", instance.toString())
+                    .register(registry);
+            Gauge.builder("shareit.gateway.server.available", instance,
+                            i -> i.isAvailable(System.nanoTime()) ? 1 : 0)
+                    .description("Whether the shareit-server instance is in rotation")
+                    .tag("instance", instance.toString())
+                    .register(registry);
+            FunctionCounter.builder("shareit.gateway.server.ejections", instance, ServerInstance::getEjections)
+                    .description("Times the instance was ejected after consecutive errors")
+                    .tag("instance", instance.toString())
+                    .register(registry);
+        }
+    }
+
+    private void record(ServerInstance instance, boolean success) {
+        if (success) {
+            instance.recordSuccess();
+        } else if (instance.recordError(properties.getConsecutiveErrors(), System.nanoTime(),
+                properties.getEjectionTime().toNanos())) {
+            log.warn("Shareit server {} ejected for {} after {} consecutive errors",
+                    instance, properties.getEjectionTime(), properties.getConsecutiveErrors());
+        }
+    }
+
+    private void updateHealth(ServerInstance instance, boolean healthy) {
+        if (instance.isHealthy() != healthy) {
+            log.warn("Shareit server {} is now {}", instance, healthy ? "healthy" : "unhealthy");
+        }
+        instance.setHealthy(healthy);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+// Формат тел между gateway и сервером. Smile - бинарный вариант Jackson: те же DTO,
+// но меньше байт в сети и дешевле разбор, чем у JSON
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private static final MediaType JSON_FALLBACK = new MediaType(MediaType.APPLICATION_JSON, Map.of("q", "0.9"));
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // Клиенты шлют JSON-заголовки, фильтр меняет их на выбранный формат. JSON остается
+    // запасным вариантом ответа, если сервер Smile не поддерживает
+    ExchangeFilterFunction requestFilter() {
+        return (request, next) -> {
+            if (this == JSON) {
+                return next.exchange(request);
+            }
+            ClientRequest encoded = ClientRequest.from(request)
+                    .headers(headers -> {
+                        if (MediaType.APPLICATION_JSON.equals(headers.getContentType())) {
+                            headers.setContentType(mediaType);
+                        }
+                        if (List.of(MediaType.APPLICATION_JSON).equals(headers.getAccept())) {
+                            headers.setAccept(List.of(mediaType, JSON_FALLBACK));
+                        }
+                    })
+                    .build();
+            return next.exchange(encoded);
+        };
+    }
+
+    public static boolean isSmile(@Nullable MediaType mediaType) {
+        return mediaType != null && SMILE.mediaType.equalsTypeAndSubtype(mediaType);
+    }
+
+    // Потоковое перекодирование, без построения дерева объектов
+    public static byte[] smileToJson(byte[] smile) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(smile.length * 2);
+        try (JsonParser parser = SMILE_FACTORY.createParser(smile);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Ответ сервера в Smile уходит клиенту как есть, только если клиент явно его запросил,
+// остальным перекодируется в JSON на выходе из gateway
+@ControllerAdvice
+public class WireFormatResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return ByteArrayHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(body instanceof byte[]) || !WireFormat.isSmile(selectedContentType)
+                || request.getHeaders().getAccept().stream().anyMatch(WireFormat::isSmile)) {
+            return body;
+        }
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return WireFormat.smileToJson((byte[]) body);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+// Обработка запросов Tomcat и запись потоковых ответов (SSE) на виртуальных потоках вместо пулов.
+// Вызовы сервера и так неблокирующие и на потоки запросов не влияют
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit-gateway.threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final Optional<ExecutorService> requestExecutor;
+    private final Optional<ExecutorService> streamingExecutor;
+
+    public VirtualThreadConfig(@Value("${shareit-gateway.threads.trace-pinning:short}") String tracePinning) {
+        this.requestExecutor = VirtualThreads.newPerTaskExecutor("gateway-request-", tracePinning);
+        this.streamingExecutor = VirtualThreads.newPerTaskExecutor("gateway-stream-", tracePinning);
+        requestExecutor.ifPresent(executor -> log.info("Gateway requests run on virtual threads"));
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadRequestExecutor() {
+        return factory -> requestExecutor.ifPresent(executor -> factory.addConnectorCustomizers(connector ->
+                connector.getProtocolHandler().setExecutor(executor)));
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        streamingExecutor.ifPresent(executor -> configurer.setTaskExecutor(new TaskExecutorAdapter(executor)));
+    }
+
+    // Внешний executor Tomcat не останавливает
+    @PreDestroy
+    public void stop() {
+        requestExecutor.ifPresent(ExecutorService::shutdownNow);
+        streamingExecutor.ifPresent(ExecutorService::shutdownNow);
+    }
+}
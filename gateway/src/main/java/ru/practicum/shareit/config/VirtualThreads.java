@@ -0,0 +1,41 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Модуль собирается под Java 11, поэтому API виртуальных потоков вызывается через reflection
+// и доступно, только если приложение запущено на Java 21+
+@Slf4j
+final class VirtualThreads {
+
+    private static final String TRACE_PINNED_THREADS = "jdk.tracePinnedThreads";
+
+    private VirtualThreads() {
+    }
+
+    // Пустой результат - среда выполнения не поддерживает виртуальные потоки
+    static Optional<ExecutorService> newPerTaskExecutor(String namePrefix, String tracePinning) {
+        // Свойство читается при создании первого виртуального потока: после него JVM печатает стек
+        // каждого потока, который заблокировался, удерживая монитор (synchronized вокруг I/O)
+        if (!"off".equals(tracePinning) && System.getProperty(TRACE_PINNED_THREADS) == null) {
+            System.setProperty(TRACE_PINNED_THREADS, tracePinning);
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return Optional.of((ExecutorService) newExecutor.invoke(null, factory));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Virtual threads are not available on Java {}, staying on platform threads: {}",
+                    Runtime.version(), e.toString());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.dashboard.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.dashboard.dto.DashboardDto;
+import ru.practicum.shareit.dashboard.service.DashboardService;
+
+@Controller
+@RequestMapping(path = "/me")
+@RequiredArgsConstructor
+public class DashboardGatewayController {
+
+    public static final String USER_ID = "X-Sharer-User-Id";
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/dashboard")
+    public Mono<ResponseEntity<DashboardDto>> getDashboard(@RequestHeader(USER_ID) Long userId) {
+        return dashboardService.getDashboard(userId)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDto {
+    private DashboardSectionDto user;
+    private DashboardSectionDto items;
+    private DashboardSectionDto waitingBookings;
+    private DashboardSectionDto requests;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.dashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Результат одного подзапроса: статус и тело ответа сервера либо описание ошибки
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardSectionDto {
+    private int status;
+    private JsonNode body;
+}
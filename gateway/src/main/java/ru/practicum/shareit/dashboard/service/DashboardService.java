@@ -0,0 +1,96 @@
+package ru.practicum.shareit.dashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.enumeration.BookingState;
+import ru.practicum.shareit.client.ResponseBodies;
+import ru.practicum.shareit.dashboard.dto.DashboardDto;
+import ru.practicum.shareit.dashboard.dto.DashboardSectionDto;
+import ru.practicum.shareit.exception.ResponseErrorDto;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.request.client.ItemRequestClient;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+// Главный экран владельца: профиль, вещи, бронирования на подтверждение и запросы.
+// Подзапросы идут на сервер одновременно, ошибка одного не мешает остальным
+@Slf4j
+@Service
+public class DashboardService {
+
+    private static final int WAITING_BOOKINGS_FROM = 0;
+    private static final int WAITING_BOOKINGS_SIZE = 10;
+
+    private final UserClient userClient;
+    private final ItemClient itemClient;
+    private final BookingClient bookingClient;
+    private final ItemRequestClient itemRequestClient;
+    private final ObjectMapper objectMapper;
+    private final Duration sectionTimeout;
+
+    public DashboardService(UserClient userClient,
+                            ItemClient itemClient,
+                            BookingClient bookingClient,
+                            ItemRequestClient itemRequestClient,
+                            ObjectMapper objectMapper,
+                            @Value("${shareit-gateway.dashboard.section-timeout:3s}") Duration sectionTimeout) {
+        this.userClient = userClient;
+        this.itemClient = itemClient;
+        this.bookingClient = bookingClient;
+        this.itemRequestClient = itemRequestClient;
+        this.objectMapper = objectMapper;
+        this.sectionTimeout = sectionTimeout;
+    }
+
+    public Mono<DashboardDto> getDashboard(Long userId) {
+        return Mono.zip(
+                        section("user", userClient.getUser(userId)),
+                        section("items", itemClient.getItems(userId)),
+                        section("waitingBookings", bookingClient.getBookingsByOwnerId(userId,
+                                BookingState.WAITING.name(), WAITING_BOOKINGS_FROM, WAITING_BOOKINGS_SIZE)),
+                        section("requests", itemRequestClient.getRequests(userId)))
+                .map(sections -> DashboardDto.builder()
+                        .user(sections.getT1())
+                        .items(sections.getT2())
+                        .waitingBookings(sections.getT3())
+                        .requests(sections.getT4())
+                        .build());
+    }
+
+    private Mono<DashboardSectionDto> section(String name, Mono<ResponseEntity<Object>> request) {
+        return request
+                .timeout(sectionTimeout)
+                .map(this::toSection)
+                .onErrorResume(e -> {
+                    log.warn("Dashboard section {} failed: {}", name, e.toString());
+                    return Mono.just(toSection(e));
+                });
+    }
+
+    private DashboardSectionDto toSection(ResponseEntity<Object> response) {
+        return new DashboardSectionDto(response.getStatusCodeValue(), ResponseBodies.toJson(objectMapper, response));
+    }
+
+    private DashboardSectionDto toSection(Throwable e) {
+        HttpStatus status;
+        if (e instanceof TimeoutException) {
+            status = HttpStatus.GATEWAY_TIMEOUT;
+        } else if (e instanceof CallNotPermittedException || e instanceof BulkheadFullException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+        } else {
+            status = HttpStatus.BAD_GATEWAY;
+        }
+        return new DashboardSectionDto(status.value(), objectMapper.valueToTree(
+                new ResponseErrorDto(status.getReasonPhrase(), e.getMessage())));
+    }
+}
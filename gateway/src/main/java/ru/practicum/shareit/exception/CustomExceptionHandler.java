@@ -1,5 +1,7 @@
 package ru.practicum.shareit.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.http.HttpStatus;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.ConstraintViolationException;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @RestControllerAdvice
@@ -42,6 +45,20 @@ public class CustomExceptionHandler {
         return new ResponseErrorDto(null, e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ResponseErrorDto handleTimeout(final TimeoutException e) {
+        log.warn("Shareit server did not respond in time: {}", e.getMessage());
+        return new ResponseErrorDto("Gateway Timeout", e.getMessage());
+    }
+
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseErrorDto handleServiceUnavailable(final RuntimeException e) {
+        log.warn("Request to shareit server rejected: {}", e.getMessage());
+        return new ResponseErrorDto("Service Unavailable", e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ResponseErrorDto handleGeneralException(final Exception e) {
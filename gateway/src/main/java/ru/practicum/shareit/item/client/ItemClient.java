@@ -2,12 +2,17 @@ package ru.practicum.shareit.item.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.cache.GatewayResponseCache;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -15,39 +20,53 @@ import ru.practicum.shareit.item.dto.ItemDto;
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
+    private static final String REQUESTS_RESOURCE = "/requests";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      WebClient.Builder builder,
+                      ClientHttpConnector connector,
+                      GatewayResponseCache cache,
+                      RequestCoalescer coalescer,
+                      ClientResilience resilience) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .clientConnector(connector)
+                        .build(),
+                API_PREFIX,
+                cache,
+                coalescer,
+                resilience
         );
     }
 
-    public ResponseEntity<Object> saveItem(Long userId, ItemDto dto) {
-        return post("", userId, dto);
+    public Mono<ResponseEntity<Object>> saveItem(Long userId, ItemDto dto, @Nullable String idempotencyKey) {
+        if (dto.getRequestId() != null) {
+            return evictAfter(post("", userId, dto, idempotencyKey), REQUESTS_RESOURCE + "/" + dto.getRequestId());
+        }
+        return post("", userId, dto, idempotencyKey);
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto dto) {
-        return patch("/" + itemId, userId, dto);
+    public Mono<ResponseEntity<Object>> updateItem(Long userId, Long itemId, ItemDto dto) {
+        // Вещь могла быть создана по запросу, а id запроса здесь неизвестен
+        return evictAfter(patch("/" + itemId, userId, dto), API_PREFIX + "/" + itemId, REQUESTS_RESOURCE);
     }
 
-    public ResponseEntity<Object> getItem(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItem(Long userId, Long itemId) {
+        return cachedGet("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getItems(Long userId) {
+    public Mono<ResponseEntity<Object>> getItems(Long userId) {
         return get("/", userId);
     }
 
-    public ResponseEntity<Object> searchByText(String text) {
+    public Mono<ResponseEntity<Object>> searchByText(String text) {
         String url = String.format("/search?text=%s", text);
         return get(url);
     }
 
-    public ResponseEntity<Object> saveComment(Long userId, Long itemId, CommentDto dto) {
-        return post("/" + itemId + "/comment", userId, dto);
+    public Mono<ResponseEntity<Object>> saveComment(Long userId, Long itemId, CommentDto dto) {
+        return evictAfter(post("/" + itemId + "/comment", userId, dto), API_PREFIX + "/" + itemId);
     }
 }
\ No newline at end of file
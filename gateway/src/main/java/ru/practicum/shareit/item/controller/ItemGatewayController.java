@@ -5,6 +5,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -23,38 +25,40 @@ public class ItemGatewayController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> saveItem(@RequestHeader(USER_ID) Long userId,
-                                           @Validated(OnCreate.class) @RequestBody ItemDto dto) {
-        return itemClient.saveItem(userId, dto);
+    public Mono<ResponseEntity<Object>> saveItem(@RequestHeader(USER_ID) Long userId,
+                                                 @RequestHeader(value = BaseClient.IDEMPOTENCY_KEY, required = false)
+                                                 String idempotencyKey,
+                                                 @Validated(OnCreate.class) @RequestBody ItemDto dto) {
+        return itemClient.saveItem(userId, dto, idempotencyKey);
     }
 
     @PatchMapping("{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader(USER_ID) Long userId,
-                                             @PathVariable Long itemId,
-                                             @RequestBody ItemDto dto) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader(USER_ID) Long userId,
+                                                   @PathVariable Long itemId,
+                                                   @RequestBody ItemDto dto) {
         return itemClient.updateItem(userId, itemId, dto);
     }
 
     @GetMapping("{itemId}")
-    public ResponseEntity<Object> getItem(@RequestHeader(USER_ID) Long userId,
-                                          @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> getItem(@RequestHeader(USER_ID) Long userId,
+                                                @PathVariable Long itemId) {
         return itemClient.getItem(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getItems(@RequestHeader(USER_ID) Long userId) {
+    public Mono<ResponseEntity<Object>> getItems(@RequestHeader(USER_ID) Long userId) {
         return itemClient.getItems(userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchByText(@RequestParam(required = false) String text) {
+    public Mono<ResponseEntity<Object>> searchByText(@RequestParam(required = false) String text) {
         return itemClient.searchByText(text);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> saveComment(@RequestHeader(USER_ID) Long userId,
-                                              @PathVariable Long itemId,
-                                              @Valid @RequestBody CommentDto dto) {
+    public Mono<ResponseEntity<Object>> saveComment(@RequestHeader(USER_ID) Long userId,
+                                                    @PathVariable Long itemId,
+                                                    @Valid @RequestBody CommentDto dto) {
         return itemClient.saveComment(userId, itemId, dto);
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.knownids;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Фильтр Блума по id: "нет" - точно нет, "есть" - есть с вероятностью ошибки fpp.
+// Индексы битов - двойное хэширование (Kirsch-Mitzenmacher) от перемешанного id
+class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private volatile long insertions;
+
+    private BloomFilter(long bits, int hashes) {
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bits = (long) words.length() * 64;
+        this.hashes = hashes;
+    }
+
+    // Размер под capacity id с вероятностью ложного срабатывания fpp, но не больше maxBits
+    static BloomFilter create(long capacity, double fpp, long maxBits) {
+        long n = Math.max(1, capacity);
+        long optimalBits = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        long bits = Math.max(64, Math.min(optimalBits, maxBits));
+        int hashes = (int) Math.max(1, Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(bits, hashes);
+    }
+
+    // Вызывается из одного потока обновления, читать можно параллельно
+    void put(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Long.remainderUnsigned(hash1 + i * hash2, bits);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = words.get(word);
+            if ((current & mask) == 0) {
+                words.set(word, current | mask);
+            }
+        }
+        insertions++;
+    }
+
+    boolean mightContain(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Long.remainderUnsigned(hash1 + i * hash2, bits);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ожидаемая доля ложных срабатываний при текущем числе вставок: (1 - e^(-kn/m))^k
+    double expectedFpp() {
+        return Math.pow(1 - Math.exp(-(double) hashes * insertions / bits), hashes);
+    }
+
+    long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    long getInsertions() {
+        return insertions;
+    }
+
+    // Финализатор MurmurHash3: соседние id дают непохожие хэши
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
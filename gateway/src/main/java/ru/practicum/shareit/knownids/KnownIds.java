@@ -0,0 +1,227 @@
+package ru.practicum.shareit.knownids;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+// Компактное представление существующих id пользователей, вещей и бронирований: фильтры Блума,
+// которые периодически догружаются новыми id с сервера. Id выше проверенной границы считаются
+// существующими - их могли создать после обновления.
+// Id выдаются по порядку, но транзакции фиксируются в произвольном: id 9 может появиться после 10.
+// Поэтому граница сдвигается только до id, максимального на момент не позже visibilityLag назад,
+// а каждое обновление перечитывает id выше границы
+@Slf4j
+public class KnownIds implements MeterBinder {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String BOOKINGS = "bookings";
+    private static final List<String> RESOURCES = List.of(USERS, ITEMS, BOOKINGS);
+    private static final int FPP_SAMPLES = 10_000;
+
+    private final KnownIdsProperties properties;
+    private final WebClient client;
+    private final LongSupplier nanoClock;
+    private final long maxBitsPerFilter;
+    private final Map<String, IdSet> sets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> rejected = new ConcurrentHashMap<>();
+    private Disposable refreshes;
+
+    public KnownIds(KnownIdsProperties properties, WebClient client) {
+        this(properties, client, System::nanoTime);
+    }
+
+    KnownIds(KnownIdsProperties properties, WebClient client, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.client = client;
+        this.nanoClock = nanoClock;
+        this.maxBitsPerFilter = properties.getMemoryBudget().toBytes() * Byte.SIZE / RESOURCES.size();
+        RESOURCES.forEach(resource -> rejected.put(resource, new AtomicLong()));
+    }
+
+    public void start() {
+        refreshes = Flux.interval(Duration.ZERO, properties.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    public void stop() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+
+    // false - id точно не существует
+    public boolean mightExist(String resource, long id) {
+        IdSet set = sets.get(resource);
+        if (set == null || id > set.checkedId || set.bloom.mightContain(id)) {
+            return true;
+        }
+        rejected.get(resource).incrementAndGet();
+        return false;
+    }
+
+    Mono<Void> refresh() {
+        return Flux.fromIterable(RESOURCES)
+                .concatMap(resource -> {
+                    IdSet set = sets.get(resource);
+                    Mono<Void> refresh = set == null
+                            || nanoClock.getAsLong() - set.builtAtNanos >= properties.getRebuildInterval().toNanos()
+                            ? rebuild(resource, set)
+                            : update(resource, set);
+                    return refresh.onErrorResume(e -> {
+                        log.warn("Failed to refresh known {} ids: {}", resource, e.getMessage());
+                        return Mono.empty();
+                    });
+                })
+                .then();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String resource : RESOURCES) {
+            gauge(registry, "shareit.gateway.known-ids.size", resource, set -> set.bloom.getInsertions());
+            gauge(registry, "shareit.gateway.known-ids.memory", resource, set -> set.bloom.sizeInBytes());
+            gauge(registry, "shareit.gateway.known-ids.fpp.expected", resource, set -> set.bloom.expectedFpp());
+            gauge(registry, "shareit.gateway.known-ids.fpp.measured", resource, set -> set.measuredFpp);
+            FunctionCounter.builder("shareit.gateway.known-ids.rejected", rejected.get(resource), AtomicLong::get)
+                    .description("Requests rejected at the gateway because the id definitely does not exist")
+                    .tag("resource", resource)
+                    .register(registry);
+        }
+    }
+
+    // Полная пересборка: размер фильтра под текущее число id с запасом на рост, в пределах бюджета памяти.
+    // Граница и наблюдения переходят от прежнего фильтра
+    private Mono<Void> rebuild(String resource, IdSet previous) {
+        long startedNanos = nanoClock.getAsLong();
+        return pages(resource, 0)
+                .collectList()
+                .doOnNext(pages -> {
+                    long[] ids = pages.stream().flatMapToLong(Arrays::stream).toArray();
+                    BloomFilter bloom = BloomFilter.create(ids.length + ids.length / 2 + 1024,
+                            properties.getFalsePositiveRate(), maxBitsPerFilter);
+                    for (long id : ids) {
+                        bloom.put(id);
+                    }
+                    long maxId = ids.length == 0 ? 0 : ids[ids.length - 1];
+                    IdSet set = new IdSet(bloom, nanoClock.getAsLong(), measureFpp(bloom, ids, maxId), previous);
+                    set.observe(maxId, nanoClock.getAsLong());
+                    advance(set, startedNanos);
+                    sets.put(resource, set);
+                    log.info("Known {} ids rebuilt: {} ids, {} bytes, measured false positive rate {}",
+                            resource, ids.length, bloom.sizeInBytes(), set.measuredFpp);
+                })
+                .then();
+    }
+
+    // Граница сдвигается только после того, как перечитаны все id выше прежней границы
+    private Mono<Void> update(String resource, IdSet set) {
+        long startedNanos = nanoClock.getAsLong();
+        return pages(resource, set.checkedId)
+                .doOnNext(page -> {
+                    for (long id : page) {
+                        set.bloom.put(id);
+                    }
+                    set.maxSeenId = Math.max(set.maxSeenId, page[page.length - 1]);
+                })
+                .then(Mono.fromRunnable(() -> {
+                    set.observe(set.maxSeenId, nanoClock.getAsLong());
+                    advance(set, startedNanos);
+                }));
+    }
+
+    // Id ниже максимального, виденного за visibilityLag до начала выборки, были зафиксированы
+    // к ее началу и попали в нее
+    private void advance(IdSet set, long fetchStartedNanos) {
+        long horizon = fetchStartedNanos - properties.getVisibilityLag().toNanos();
+        while (!set.observations.isEmpty() && set.observations.peekFirst()[0] <= horizon) {
+            set.checkedId = Math.max(set.checkedId, set.observations.pollFirst()[1]);
+        }
+    }
+
+    private Flux<long[]> pages(String resource, long afterId) {
+        return fetch(resource, afterId)
+                .expand(page -> page.length == properties.getPageSize()
+                        ? fetch(resource, page[page.length - 1])
+                        : Mono.empty())
+                .filter(page -> page.length > 0);
+    }
+
+    private Mono<long[]> fetch(String resource, long afterId) {
+        return client.get()
+                .uri("/{resource}/ids?after={after}&size={size}", resource, afterId, properties.getPageSize())
+                .retrieve()
+                .bodyToMono(long[].class);
+    }
+
+    // Доля ложных срабатываний на случайных отсутствующих id из диапазона [1, maxId]
+    private static double measureFpp(BloomFilter bloom, long[] sortedIds, long maxId) {
+        if (maxId <= sortedIds.length) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int absent = 0;
+        int falsePositives = 0;
+        for (int i = 0; i < FPP_SAMPLES; i++) {
+            long id = random.nextLong(1, maxId + 1);
+            if (Arrays.binarySearch(sortedIds, id) < 0) {
+                absent++;
+                if (bloom.mightContain(id)) {
+                    falsePositives++;
+                }
+            }
+        }
+        return absent == 0 ? 0 : (double) falsePositives / absent;
+    }
+
+    private void gauge(MeterRegistry registry, String name, String resource, ToDoubleFunction<IdSet> value) {
+        Gauge.builder(name, sets, map -> map.containsKey(resource) ? value.applyAsDouble(map.get(resource)) : Double.NaN)
+                .tag("resource", resource)
+                .register(registry);
+    }
+
+    // Изменяется только из потока обновления, mightExist читает bloom и checkedId
+    private static class IdSet {
+        private final BloomFilter bloom;
+        private final long builtAtNanos;
+        private final double measuredFpp;
+        // Пары {время, максимальный виденный id}, по возрастанию времени
+        private final Deque<long[]> observations;
+        private long maxSeenId;
+        private volatile long checkedId;
+
+        private IdSet(BloomFilter bloom, long builtAtNanos, double measuredFpp, IdSet previous) {
+            this.bloom = bloom;
+            this.builtAtNanos = builtAtNanos;
+            this.measuredFpp = measuredFpp;
+            this.observations = previous != null ? previous.observations : new ArrayDeque<>();
+            this.maxSeenId = previous != null ? previous.maxSeenId : 0;
+            this.checkedId = previous != null ? previous.checkedId : 0;
+        }
+
+        private void observe(long maxId, long nanos) {
+            maxSeenId = Math.max(maxSeenId, maxId);
+            observations.addLast(new long[]{nanos, maxSeenId});
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.knownids;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.client.ServerLoadBalancer;
+
+@Configuration
+@EnableConfigurationProperties(KnownIdsProperties.class)
+@ConditionalOnProperty(prefix = "shareit-gateway.known-ids", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class KnownIdsConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public KnownIds knownIds(KnownIdsProperties properties,
+                             @Value("${shareit-server.url}") String serverUrl,
+                             ClientHttpConnector connector,
+                             ServerLoadBalancer loadBalancer) {
+        // Не через WebClient.Builder: он зависит от MeterRegistry, а KnownIds сам регистрирует метрики
+        return new KnownIds(properties, WebClient.builder()
+                .baseUrl(serverUrl)
+                .clientConnector(connector)
+                .filter(loadBalancer)
+                .build());
+    }
+
+    @Bean
+    public FilterRegistrationBean<KnownIdsFilter> knownIdsFilter(KnownIds knownIds, ObjectMapper objectMapper) {
+        return new FilterRegistrationBean<>(new KnownIdsFilter(knownIds, objectMapper));
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.knownids;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exception.ResponseErrorDto;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Отвечает 404 на запросы с заведомо несуществующими id, не отправляя их на сервер.
+// Проверки только там, где сервер на неизвестный id и так отвечает 404
+@Slf4j
+@RequiredArgsConstructor
+public class KnownIdsFilter extends OncePerRequestFilter {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    private final KnownIds knownIds;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String missing = findMissing(request);
+        if (missing == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        log.debug("Rejected {} {} at the gateway: {}", request.getMethod(), request.getRequestURI(), missing);
+        response.setStatus(HttpStatus.NOT_FOUND.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ResponseErrorDto("Entity not found", missing));
+    }
+
+    private String findMissing(HttpServletRequest request) {
+        String[] path = StringUtils.tokenizeToStringArray(request.getRequestURI(), "/");
+        if (path.length == 0) {
+            return null;
+        }
+        String resource = path[0];
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        Long userId = parseId(request.getHeader(USER_ID));
+        if (userId != null && checksUser(resource, method, path) && !knownIds.mightExist(KnownIds.USERS, userId)) {
+            return "User not exist";
+        }
+        Long pathId = path.length > 1 ? parseId(path[1]) : null;
+        if (pathId == null) {
+            return null;
+        }
+        switch (resource) {
+            case "users":
+                return (method == HttpMethod.GET || method == HttpMethod.PATCH)
+                        && !knownIds.mightExist(KnownIds.USERS, pathId) ? "User not exist" : null;
+            case "items":
+                boolean comment = method == HttpMethod.POST && path.length == 3 && "comment".equals(path[2]);
+                return (method == HttpMethod.GET || method == HttpMethod.PATCH || comment)
+                        && !knownIds.mightExist(KnownIds.ITEMS, pathId) ? "Item not exist" : null;
+            case "bookings":
+                return (method == HttpMethod.GET || method == HttpMethod.PATCH)
+                        && !knownIds.mightExist(KnownIds.BOOKINGS, pathId) ? "Booking not exist" : null;
+            default:
+                return null;
+        }
+    }
+
+    // Список вещей и поиск сервер отдает и для неизвестного пользователя
+    private static boolean checksUser(String resource, HttpMethod method, String[] path) {
+        switch (resource) {
+            case "bookings":
+            case "requests":
+                return true;
+            case "items":
+                return !(method == HttpMethod.GET && (path.length == 1 || "search".equals(path[1])));
+            default:
+                return false;
+        }
+    }
+
+    private static Long parseId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.knownids;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.known-ids")
+public class KnownIdsProperties {
+    private boolean enabled = true;
+    // Подгрузка новых id с сервера и полная пересборка фильтров (учитывает удаления и рост числа id)
+    private Duration refreshInterval = Duration.ofSeconds(10);
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+    private int pageSize = 10_000;
+    // Дольше самой длинной транзакции создания на сервере: к этому времени зафиксированы все id
+    // ниже тех, что уже были видны
+    private Duration visibilityLag = Duration.ofSeconds(30);
+    // Целевая вероятность ложного срабатывания и общий лимит памяти на фильтры users, items и bookings
+    private double falsePositiveRate = 0.01;
+    private DataSize memoryBudget = DataSize.ofMegabytes(4);
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exception.ResponseErrorDto;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final RateLimitProperties properties;
+    private final TokenBucketRateLimiter limiter;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this(properties, new TokenBucketRateLimiter(properties), objectMapper);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, TokenBucketRateLimiter limiter, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = tryAcquire(request);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryAfterSeconds = retryAfterSeconds(waitNanos);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), tooManyRequests(retryAfterSeconds));
+    }
+
+    // Подзапросы batch выполняются внутри приложения мимо фильтров, поэтому BatchDispatcher
+    // списывает токен за каждую операцию сам. 0 - запрос разрешен, иначе сколько наносекунд ждать
+    public long tryAcquire(HttpServletRequest request) {
+        if (shouldNotFilter(request)) {
+            return 0;
+        }
+        String group = endpointGroup(request.getRequestURI());
+        long waitNanos = limiter.tryAcquire(group, userKey(request));
+        if (waitNanos > 0) {
+            log.warn("Rate limit exceeded for {} on {}", userKey(request), group);
+        }
+        return waitNanos;
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public static ResponseErrorDto tooManyRequests(long retryAfterSeconds) {
+        return new ResponseErrorDto("Too Many Requests", "Retry after " + retryAfterSeconds + "s");
+    }
+
+    // Запросы без заголовка пользователя (создание пользователя, поиск) ограничиваем по адресу клиента
+    private static String userKey(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        return userId != null ? userId : "ip:" + request.getRemoteAddr();
+    }
+
+    // Группа эндпоинтов - первый сегмент пути: /bookings/1 -> bookings
+    private static String endpointGroup(String uri) {
+        int start = uri.startsWith("/") ? 1 : 0;
+        int end = uri.indexOf('/', start);
+        return end < 0 ? uri.substring(start) : uri.substring(start, end);
+    }
+}
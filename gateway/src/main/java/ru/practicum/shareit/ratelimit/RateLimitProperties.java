@@ -0,0 +1,31 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Лимит для групп без собственной настройки
+    private Limit defaults = new Limit();
+    // Группа - первый сегмент пути: bookings, items, users, requests. Остальные пути делят лимит defaults
+    private Map<String, Limit> groups = new HashMap<>();
+    // Сколько корзин пользователей держать в памяти
+    private long maxTrackedUsers = 100_000;
+    private Duration idleExpiration = Duration.ofMinutes(10);
+
+    @Getter
+    @Setter
+    public static class Limit {
+        // Размер корзины - допустимый всплеск запросов
+        private int capacity = 100;
+        private double refillPerSecond = 50;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket в форме GCRA: состояние корзины - одно число, обновляемое через CAS, без блокировок
+class TokenBucketRateLimiter {
+
+    // Общая группа для путей без собственной настройки: группа берется из URI, и произвольные пути
+    // не должны заводить новые группы и корзины
+    static final String DEFAULT_GROUP = "default";
+
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+    private final Map<String, BucketParameters> groupParameters;
+    private final BucketParameters defaultParameters;
+
+    TokenBucketRateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        Map<String, BucketParameters> parameters = new HashMap<>();
+        properties.getGroups().forEach((group, limit) -> parameters.put(group, parametersOf(limit)));
+        this.groupParameters = Map.copyOf(parameters);
+        this.defaultParameters = parametersOf(properties.getDefaults());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedUsers())
+                .expireAfterAccess(properties.getIdleExpiration())
+                .build();
+    }
+
+    // Возвращает 0, если запрос разрешен, иначе сколько наносекунд ждать до следующего токена
+    long tryAcquire(String group, String userKey) {
+        BucketParameters configured = groupParameters.get(group);
+        BucketParameters parameters = configured != null ? configured : defaultParameters;
+        String bucketKey = (configured != null ? group : DEFAULT_GROUP) + ':' + userKey;
+        // Время "теоретического прихода" следующего запроса; изначально в прошлом - корзина полна
+        AtomicLong theoreticalArrival = buckets.get(bucketKey, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = current == Long.MIN_VALUE ? now : Math.max(current, now);
+            long waitNanos = base - now - parameters.burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, base + parameters.emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    long trackedBuckets() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private static BucketParameters parametersOf(RateLimitProperties.Limit limit) {
+        long emissionInterval = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRefillPerSecond());
+        return new BucketParameters(emissionInterval, emissionInterval * (limit.getCapacity() - 1));
+    }
+
+    private static final class BucketParameters {
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+
+        private BucketParameters(long emissionIntervalNanos, long burstToleranceNanos) {
+            this.emissionIntervalNanos = emissionIntervalNanos;
+            this.burstToleranceNanos = burstToleranceNanos;
+        }
+    }
+}
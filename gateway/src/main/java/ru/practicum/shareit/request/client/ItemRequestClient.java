@@ -2,12 +2,17 @@ package ru.practicum.shareit.request.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.cache.GatewayResponseCache;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
@@ -18,24 +23,34 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             WebClient.Builder builder,
+                             ClientHttpConnector connector,
+                             GatewayResponseCache cache,
+                             RequestCoalescer coalescer,
+                             ClientResilience resilience) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .clientConnector(connector)
+                        .build(),
+                API_PREFIX,
+                cache,
+                coalescer,
+                resilience
         );
     }
 
-    public ResponseEntity<Object> saveRequest(Long requestorId, ItemRequestDto itemRequestDto) {
-        return post("", requestorId, itemRequestDto);
+    public Mono<ResponseEntity<Object>> saveRequest(Long requestorId, ItemRequestDto itemRequestDto,
+                                                    @Nullable String idempotencyKey) {
+        return post("", requestorId, itemRequestDto, idempotencyKey);
     }
 
-    public ResponseEntity<Object> getRequests(Long requestorId) {
+    public Mono<ResponseEntity<Object>> getRequests(Long requestorId) {
         return get("", requestorId);
     }
 
-    public ResponseEntity<Object> getRequestsByPagination(Long requestorId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getRequestsByPagination(Long requestorId, Integer from, Integer size) {
         String url = "/all?from={from}&size={size}";
         Map<String, Object> parameters = Map.of(
                 "from", from,
@@ -44,7 +59,7 @@ public class ItemRequestClient extends BaseClient {
         return get(url, requestorId, parameters);
     }
 
-    public ResponseEntity<Object> getRequestById(Long requestorId, Long requestId) {
-        return get("/" + requestId, requestorId);
+    public Mono<ResponseEntity<Object>> getRequestById(Long requestorId, Long requestId) {
+        return cachedGet("/" + requestId, requestorId);
     }
 }
\ No newline at end of file
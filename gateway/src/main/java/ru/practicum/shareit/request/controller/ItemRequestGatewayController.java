@@ -5,6 +5,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -23,26 +25,28 @@ public class ItemRequestGatewayController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> saveRequest(@RequestHeader(USER_ID) Long requestorId,
-                                              @Valid @RequestBody ItemRequestDto itemRequestDto) {
-        return itemRequestClient.saveRequest(requestorId, itemRequestDto);
+    public Mono<ResponseEntity<Object>> saveRequest(@RequestHeader(USER_ID) Long requestorId,
+                                                    @RequestHeader(value = BaseClient.IDEMPOTENCY_KEY, required = false)
+                                                    String idempotencyKey,
+                                                    @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        return itemRequestClient.saveRequest(requestorId, itemRequestDto, idempotencyKey);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequests(@RequestHeader(USER_ID) Long requestorId) {
+    public Mono<ResponseEntity<Object>> getRequests(@RequestHeader(USER_ID) Long requestorId) {
         return itemRequestClient.getRequests(requestorId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getRequestsByPagination(@RequestHeader(USER_ID) Long requestorId,
-                                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getRequestsByPagination(@RequestHeader(USER_ID) Long requestorId,
+                                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         return itemRequestClient.getRequestsByPagination(requestorId, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader(USER_ID) Long requestorId,
-                                                 @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader(USER_ID) Long requestorId,
+                                                       @PathVariable Long requestId) {
         return itemRequestClient.getRequestById(requestorId, requestId);
     }
 }
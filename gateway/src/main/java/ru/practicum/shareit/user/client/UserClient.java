@@ -2,12 +2,16 @@ package ru.practicum.shareit.user.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.cache.GatewayResponseCache;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
@@ -16,32 +20,41 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl,
+                      WebClient.Builder builder,
+                      ClientHttpConnector connector,
+                      GatewayResponseCache cache,
+                      RequestCoalescer coalescer,
+                      ClientResilience resilience) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .clientConnector(connector)
+                        .build(),
+                API_PREFIX,
+                cache,
+                coalescer,
+                resilience
         );
     }
 
-    public ResponseEntity<Object> saveUser(UserDto userDto) {
-        return post("", userDto);
+    public Mono<ResponseEntity<Object>> saveUser(UserDto userDto) {
+        return evictAfter(post("", userDto), API_PREFIX);
     }
 
-    public ResponseEntity<Object> updateUser(Long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public Mono<ResponseEntity<Object>> updateUser(Long userId, UserDto userDto) {
+        return evictAfter(patch("/" + userId, userDto), API_PREFIX);
     }
 
-    public ResponseEntity<Object> getUser(Long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> getUser(Long userId) {
+        return cachedGet("/" + userId, null);
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public Mono<ResponseEntity<Object>> getUsers() {
+        return cachedGet("", null);
     }
 
-    public void deleteUser(Long userId) {
-        delete("/" + userId);
+    public Mono<ResponseEntity<Object>> deleteUser(Long userId) {
+        return evictAfter(delete("/" + userId), API_PREFIX);
     }
 }
\ No newline at end of file
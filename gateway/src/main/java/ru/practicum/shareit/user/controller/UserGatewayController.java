@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validation.OnCreate;
@@ -18,28 +19,28 @@ public class UserGatewayController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> saveUser(@Validated(OnCreate.class) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> saveUser(@Validated(OnCreate.class) @RequestBody UserDto userDto) {
         return userClient.saveUser(userDto);
     }
 
     @PatchMapping(path = "/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable Long userId, @Validated(OnUpdate.class) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable Long userId, @Validated(OnUpdate.class) @RequestBody UserDto userDto) {
         return userClient.updateUser(userId, userDto);
     }
 
     @GetMapping(path = "/{userId}")
-    public ResponseEntity<Object> getUser(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> getUser(@PathVariable Long userId) {
         return userClient.getUser(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<Object>> getUsers() {
         return userClient.getUsers();
     }
 
     @DeleteMapping(path = "/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable Long userId) {
-        userClient.deleteUser(userId);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable Long userId) {
+        return userClient.deleteUser(userId)
+                .thenReturn(ResponseEntity.noContent().build());
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package ru.practicum.shareit.batch.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.practicum.shareit.batch.dispatcher.BatchDispatcher;
+import ru.practicum.shareit.batch.dto.BatchOperationDto;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.controller.BookingEventGatewayController;
+import ru.practicum.shareit.booking.controller.BookingGatewayController;
+import ru.practicum.shareit.booking.event.BookingEventHub;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.item.controller.ItemGatewayController;
+import ru.practicum.shareit.user.client.UserClient;
+import ru.practicum.shareit.user.controller.UserGatewayController;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({BatchGatewayController.class, ItemGatewayController.class, UserGatewayController.class,
+        BookingGatewayController.class, BookingEventGatewayController.class})
+@Import(BatchDispatcher.class)
+@TestPropertySource(properties = {
+        "shareit-gateway.rate-limit.groups.requests.capacity=1",
+        "shareit-gateway.rate-limit.groups.requests.refill-per-second=0.01"
+})
+public class BatchGatewayControllerTest {
+
+    public static final String USER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ItemClient itemClient;
+
+    @MockBean
+    private UserClient userClient;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    @MockBean
+    private BookingEventHub bookingEventHub;
+
+    @Test
+    void executeBatch_whenMixedOperations_thenReturnsOrderedResultsWithOwnStatuses() throws Exception {
+        when(itemClient.getItem(1L, 1L)).thenReturn(Mono.just(json(HttpStatus.OK, "{\"id\":1,\"name\":\"Дрель\"}")));
+        when(userClient.getUser(2L)).thenReturn(Mono.just(json(HttpStatus.NOT_FOUND, "{\"error\":\"User not found\"}")));
+
+        ObjectNode invalidUser = JsonNodeFactory.instance.objectNode().put("name", "user").put("email", "not-an-email");
+        ObjectNode endBeforeStart = objectMapper.valueToTree(Map.of(
+                "itemId", 1,
+                "start", LocalDateTime.now().plusDays(2).toString(),
+                "end", LocalDateTime.now().plusDays(1).toString()));
+
+        MvcResult result = mockMvc.perform(post("/batch")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                operation("GET", "/items/1", null),
+                                operation("GET", "/users/2", null),
+                                operation("GET", "/bookings?state=UNKNOWN", null),
+                                operation("POST", "/users", invalidUser),
+                                operation("POST", "/bookings", endBeforeStart),
+                                operation("GET", "/nowhere", null)))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].body.name").value("Дрель"))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].body.error").value("User not found"))
+                .andExpect(jsonPath("$[2].status").value(400))
+                .andExpect(jsonPath("$[3].status").value(400))
+                .andExpect(jsonPath("$[4].status").value(400))
+                .andExpect(jsonPath("$[5].status").value(404));
+
+        verify(userClient, never()).saveUser(any());
+        verify(bookingClient, never()).bookItem(anyLong(), any(), any());
+    }
+
+    @Test
+    void executeBatch_whenIndependentOperations_thenRunsThemConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(itemClient.getItem(1L, 1L)).thenReturn(awaitingEachOther(bothStarted));
+        when(itemClient.getItem(1L, 2L)).thenReturn(awaitingEachOther(bothStarted));
+
+        MvcResult result = mockMvc.perform(post("/batch")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                operation("GET", "/items/1", null),
+                                operation("GET", "/items/2", null)))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[1].status").value(200));
+    }
+
+    @Test
+    void executeBatch_whenOperationOverridesUserId_thenBatchUserIsUsed() throws Exception {
+        when(itemClient.getItem(1L, 1L)).thenReturn(Mono.just(json(HttpStatus.OK, "{\"id\":1}")));
+        BatchOperationDto spoofed = operation("GET", "/items/1", null);
+        spoofed.setHeaders(Map.of("x-sharer-user-id", "2", "Transfer-Encoding", "chunked"));
+
+        MvcResult result = mockMvc.perform(post("/batch")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(spoofed))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200));
+
+        verify(itemClient).getItem(1L, 1L);
+        verify(itemClient, never()).getItem(2L, 1L);
+    }
+
+    @Test
+    void executeBatch_whenOperationsExceedRateLimit_thenExcessOperationsAreRejected() throws Exception {
+        MvcResult result = mockMvc.perform(post("/batch")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                operation("GET", "/requests/1", null),
+                                operation("GET", "/requests/2", null)))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(404))
+                .andExpect(jsonPath("$[1].status").value(429))
+                .andExpect(jsonPath("$[1].body.message").value("Too Many Requests"));
+    }
+
+    @Test
+    void executeBatch_whenOperationIsStreamingEndpoint_thenItIsRejected() throws Exception {
+        BatchOperationDto events = operation("GET", "/bookings/events", null);
+        events.setHeaders(Map.of("Accept", MediaType.TEXT_EVENT_STREAM_VALUE));
+
+        MvcResult result = mockMvc.perform(post("/batch")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(events))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[0].body.error").value("Operation not supported in batch: GET /bookings/events"));
+
+        verify(bookingEventHub, never()).subscribe(anyLong());
+    }
+
+    @Test
+    void executeBatch_whenTooManyOperations_thenBadRequest() throws Exception {
+        List<BatchOperationDto> operations = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            operations.add(operation("GET", "/items/1", null));
+        }
+
+        mockMvc.perform(post("/batch")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static BatchOperationDto operation(String method, String path, ObjectNode body) {
+        return BatchOperationDto.builder()
+                .method(method)
+                .path(path)
+                .body(body)
+                .build();
+    }
+
+    private static ResponseEntity<Object> json(HttpStatus status, String body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Отвечает успехом, только если второй запрос стартовал, пока первый еще выполняется
+    private static Mono<ResponseEntity<Object>> awaitingEachOther(CountDownLatch bothStarted) {
+        return Mono.fromCallable(() -> {
+            bothStarted.countDown();
+            return bothStarted.await(2, TimeUnit.SECONDS)
+                    ? json(HttpStatus.OK, "{}")
+                    : json(HttpStatus.INTERNAL_SERVER_ERROR, "{}");
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
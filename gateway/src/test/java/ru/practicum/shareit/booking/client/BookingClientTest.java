@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.cache.GatewayCacheProperties;
+import ru.practicum.shareit.cache.GatewayResponseCache;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.HttpClientConfig;
+import ru.practicum.shareit.client.HttpClientProperties;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResilienceProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookingClientTest {
+
+    private HttpServer server;
+    private PoolingAsyncClientConnectionManager connectionManager;
+    private GatewayResponseCache cache;
+    private BookingClient bookingClient;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/bookings/1", exchange -> respond(exchange, 200,
+                "{\"id\":1,\"status\":\"APPROVED\",\"item\":{\"id\":5,\"name\":\"Item\"}}"));
+        server.createContext("/bookings/2", exchange -> respond(exchange, 200, "{\"id\":2}"));
+        server.createContext("/bookings/3", exchange -> respond(exchange, 400, "{\"error\":\"Already approved\"}"));
+        server.start();
+        String serverUrl = "http://localhost:" + server.getAddress().getPort();
+        HttpClientConfig config = new HttpClientConfig();
+        HttpClientProperties properties = new HttpClientProperties();
+        connectionManager = config.gatewayConnectionManager(properties);
+        ClientHttpConnector connector = config.gatewayClientHttpConnector(
+                config.gatewayHttpClient(connectionManager, properties));
+        cache = new GatewayResponseCache(new GatewayCacheProperties());
+        bookingClient = new BookingClient(serverUrl, WebClient.builder(), connector, cache,
+                new RequestCoalescer(true, Duration.ofSeconds(5)), new ClientResilience(new ResilienceProperties()),
+                new ObjectMapper());
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void updateBooking_thenEvictsOnlyBookedItem() {
+        warmItems();
+
+        bookingClient.updateBooking(1L, 1L, true).block();
+        warmItems();
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void updateBooking_whenItemIdMissingInResponse_thenEvictsAllItems() {
+        warmItems();
+
+        bookingClient.updateBooking(1L, 2L, true).block();
+        warmItems();
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void updateBooking_whenServerRejects_thenKeepsCache() {
+        warmItems();
+
+        bookingClient.updateBooking(1L, 3L, true).block();
+        warmItems();
+
+        assertEquals(2, loads.get());
+    }
+
+    private void warmItems() {
+        cache.getOrLoad("/items/5", 1L, this::load).block();
+        cache.getOrLoad("/items/6", 1L, this::load).block();
+    }
+
+    private Mono<ResponseEntity<Object>> load() {
+        loads.incrementAndGet();
+        return Mono.just(ResponseEntity.ok().build());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
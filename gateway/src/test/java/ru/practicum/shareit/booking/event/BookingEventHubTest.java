@@ -0,0 +1,163 @@
+package ru.practicum.shareit.booking.event;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class BookingEventHubTest {
+
+    private static final int SUBSCRIBERS = 20_000;
+
+    @Test
+    void dispatch_thenOnlyBookerAndOwnerReceiveEvent() {
+        BookingEventHub hub = new BookingEventHub(List.of(), WebClient.create(), Duration.ofMinutes(1));
+        List<BookingEventDto> booker = new CopyOnWriteArrayList<>();
+        List<BookingEventDto> owner = new CopyOnWriteArrayList<>();
+        List<BookingEventDto> stranger = new CopyOnWriteArrayList<>();
+        Disposable bookerSubscription = hub.subscribe(1L).mapNotNull(ServerSentEvent::data).subscribe(booker::add);
+        Disposable ownerSubscription = hub.subscribe(2L).mapNotNull(ServerSentEvent::data).subscribe(owner::add);
+        Disposable strangerSubscription = hub.subscribe(3L).mapNotNull(ServerSentEvent::data).subscribe(stranger::add);
+
+        hub.dispatch(event(10L, 1L, 2L, "APPROVED"));
+
+        assertEquals(1, booker.size());
+        assertEquals("APPROVED", booker.get(0).getStatus());
+        assertEquals(1, owner.size());
+        assertTrue(stranger.isEmpty());
+
+        bookerSubscription.dispose();
+        ownerSubscription.dispose();
+        strangerSubscription.dispose();
+        assertEquals(0, hub.getSubscribers());
+    }
+
+    // Вместо нагрузочного теста с 20k сокетами: 20k подписок на одном хабе, события и heartbeat всем сразу
+    @Test
+    void whenTwentyThousandSubscribers_thenEventsReachOnlyTheirUsersAndNothingLeaks() throws InterruptedException {
+        BookingEventHub hub = new BookingEventHub(List.of(), WebClient.create(), Duration.ofMillis(200));
+        AtomicLongArray events = new AtomicLongArray(SUBSCRIBERS + 1);
+        AtomicLongArray heartbeats = new AtomicLongArray(SUBSCRIBERS + 1);
+        CountDownLatch heartbeatReceived = new CountDownLatch(SUBSCRIBERS);
+        List<Disposable> subscriptions = new ArrayList<>(SUBSCRIBERS);
+        long heapBefore = usedHeap();
+        for (int userId = 1; userId <= SUBSCRIBERS; userId++) {
+            int id = userId;
+            subscriptions.add(hub.subscribe((long) userId).subscribe(sse -> {
+                if (sse.data() != null) {
+                    events.incrementAndGet(id);
+                } else if (heartbeats.getAndIncrement(id) == 0) {
+                    heartbeatReceived.countDown();
+                }
+            }));
+        }
+        long heapPerSubscriber = (usedHeap() - heapBefore) / SUBSCRIBERS;
+        hub.start();
+
+        long start = System.nanoTime();
+        for (int userId = 1; userId < SUBSCRIBERS; userId += 2) {
+            hub.dispatch(event((long) userId, (long) userId, (long) userId + 1, "APPROVED"));
+        }
+        long dispatchNanos = System.nanoTime() - start;
+        boolean allHeartbeats = heartbeatReceived.await(10, TimeUnit.SECONDS);
+        log.info("{} subscribers: ~{} bytes of heap each, {} ns per event dispatch",
+                SUBSCRIBERS, heapPerSubscriber, dispatchNanos / (SUBSCRIBERS / 2));
+
+        assertTrue(allHeartbeats);
+        for (int userId = 1; userId <= SUBSCRIBERS; userId++) {
+            assertEquals(1, events.get(userId), "events for user " + userId);
+        }
+        assertEquals(SUBSCRIBERS, hub.getSubscribers());
+        subscriptions.subList(0, SUBSCRIBERS / 2).forEach(Disposable::dispose);
+        assertEquals(SUBSCRIBERS / 2, hub.getSubscribers());
+        hub.stop();
+        assertEquals(0, hub.getSubscribers());
+    }
+
+    @Test
+    void start_whenServerStreamsEvents_thenSubscribersReceiveThem() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        CountDownLatch subscribed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/bookings/events", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream os = exchange.getResponseBody()) {
+                awaitQuietly(subscribed);
+                os.write(("event:booking\ndata:{\"bookingId\":5,\"bookerId\":1,\"ownerId\":2,\"status\":\"REJECTED\"}\n\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                os.flush();
+                awaitQuietly(release);
+            } catch (IOException ignored) {
+                // клиент отключился
+            }
+        });
+        server.start();
+        BookingEventHub hub = new BookingEventHub(
+                List.of(URI.create("http://localhost:" + server.getAddress().getPort())),
+                WebClient.create(), Duration.ofMinutes(1));
+        List<BookingEventDto> received = new CopyOnWriteArrayList<>();
+        CountDownLatch eventReceived = new CountDownLatch(1);
+        Disposable subscription = hub.subscribe(2L).mapNotNull(ServerSentEvent::data).subscribe(event -> {
+            received.add(event);
+            eventReceived.countDown();
+        });
+        try {
+            hub.start();
+            subscribed.countDown();
+
+            assertTrue(eventReceived.await(5, TimeUnit.SECONDS));
+            assertEquals(5L, received.get(0).getBookingId());
+            assertEquals("REJECTED", received.get(0).getStatus());
+        } finally {
+            release.countDown();
+            subscription.dispose();
+            hub.stop();
+            server.stop(0);
+        }
+    }
+
+    private static BookingEventDto event(Long bookingId, Long bookerId, Long ownerId, String status) {
+        return BookingEventDto.builder()
+                .bookingId(bookingId)
+                .itemId(1L)
+                .bookerId(bookerId)
+                .ownerId(ownerId)
+                .status(status)
+                .build();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
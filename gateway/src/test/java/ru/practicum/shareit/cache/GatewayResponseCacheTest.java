@@ -0,0 +1,117 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GatewayResponseCacheTest {
+
+    private GatewayResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GatewayResponseCache(new GatewayCacheProperties());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void whenSameResourceAndUser_thenServerIsCalledOnce() {
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenDifferentUsers_thenResponsesAreCachedSeparately() {
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/1", 2L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/1", 2L, loader(HttpStatus.OK)).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenServerRespondsWithError_thenResponseIsNotCached() {
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.NOT_FOUND)).block();
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.NOT_FOUND)).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenResourceEvicted_thenNestedPathsAreEvictedAndOthersKept() {
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/1?text=a", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/10", 1L, loader(HttpStatus.OK)).block();
+
+        cache.evict("/items/1");
+
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/1?text=a", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/10", 1L, loader(HttpStatus.OK)).block();
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void whenEvictedWhileLoading_thenStaleResponseIsNotCached() {
+        Sinks.One<ResponseEntity<Object>> response = Sinks.one();
+        Mono<ResponseEntity<Object>> inFlight = cache.getOrLoad("/items/1", 1L, () -> {
+            loads.incrementAndGet();
+            return response.asMono();
+        });
+
+        inFlight.subscribe();
+        cache.evict("/items/1");
+        response.tryEmitValue(ResponseEntity.ok().build());
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenParentResourceEvicted_thenChildResponsesAreReloaded() {
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/2?text=a", 1L, loader(HttpStatus.OK)).block();
+
+        cache.evict("/items");
+
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+        cache.getOrLoad("/items/2?text=a", 1L, loader(HttpStatus.OK)).block();
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void whenOtherResourceEvictedWhileLoading_thenResponseIsCached() {
+        Sinks.One<ResponseEntity<Object>> response = Sinks.one();
+        Mono<ResponseEntity<Object>> inFlight = cache.getOrLoad("/items/1", 1L, () -> {
+            loads.incrementAndGet();
+            return response.asMono();
+        });
+
+        inFlight.subscribe();
+        cache.evict("/users", "/items/10", "/requests/1");
+        response.tryEmitValue(ResponseEntity.ok().build());
+        cache.getOrLoad("/items/1", 1L, loader(HttpStatus.OK)).block();
+
+        assertEquals(1, loads.get());
+    }
+
+    private Supplier<Mono<ResponseEntity<Object>>> loader(HttpStatus status) {
+        return () -> {
+            loads.incrementAndGet();
+            return Mono.just(ResponseEntity.status(status).build());
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.cache.GatewayCacheProperties;
+import ru.practicum.shareit.cache.GatewayResponseCache;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BaseClientTest {
+
+    private HttpServer server;
+    private PoolingAsyncClientConnectionManager connectionManager;
+    private UserClient userClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/users/1", exchange -> respond(exchange, 200, "{\"id\":1,\"name\":\"User\"}"));
+        server.createContext("/users/2", exchange -> respond(exchange, 404, "{\"message\":\"Entity not found\"}"));
+        server.createContext("/users/3", BaseClientTest::respondGzipped);
+        server.start();
+        String serverUrl = "http://localhost:" + server.getAddress().getPort();
+        HttpClientConfig config = new HttpClientConfig();
+        HttpClientProperties properties = new HttpClientProperties();
+        connectionManager = config.gatewayConnectionManager(properties);
+        ClientHttpConnector connector = config.gatewayClientHttpConnector(
+                config.gatewayHttpClient(connectionManager, properties));
+        GatewayCacheProperties cacheProperties = new GatewayCacheProperties();
+        cacheProperties.setEnabled(false);
+        userClient = new UserClient(serverUrl, WebClient.builder(), connector,
+                new GatewayResponseCache(cacheProperties), new RequestCoalescer(true, Duration.ofSeconds(5)),
+                new ClientResilience(new ResilienceProperties()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void whenServerRespondsOk_thenRawBodyAndContentTypeArePassedThrough() {
+        ResponseEntity<Object> response = userClient.getUser(1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals("{\"id\":1,\"name\":\"User\"}".getBytes(StandardCharsets.UTF_8),
+                (byte[]) response.getBody());
+    }
+
+    @Test
+    void whenServerRespondsWithError_thenStatusAndRawBodyArePassedThrough() {
+        ResponseEntity<Object> response = userClient.getUser(2L).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals("{\"message\":\"Entity not found\"}".getBytes(StandardCharsets.UTF_8),
+                (byte[]) response.getBody());
+    }
+
+    @Test
+    void whenServerRespondsGzipped_thenBodyIsDecompressed() {
+        ResponseEntity<Object> response = userClient.getUser(3L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals("{\"id\":3,\"name\":\"User\"}".getBytes(StandardCharsets.UTF_8),
+                (byte[]) response.getBody());
+    }
+
+    @Test
+    void whenRequestsAreSequential_thenPooledConnectionIsReused() throws InterruptedException {
+        userClient.getUser(1L).block();
+        awaitConnectionsReleased();
+        userClient.getUser(1L).block();
+        awaitConnectionsReleased();
+
+        PoolStats stats = connectionManager.getTotalStats();
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getAvailable());
+    }
+
+    // Соединение возвращается в пул асинхронно, уже после завершения Mono
+    private void awaitConnectionsReleased() throws InterruptedException {
+        for (int i = 0; i < 100 && connectionManager.getTotalStats().getLeased() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    // Сжимает ответ, только если gateway об этом попросил
+    private static void respondGzipped(HttpExchange exchange) throws IOException {
+        byte[] bytes = "{\"id\":3,\"name\":\"User\"}".getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(bytes);
+            }
+            bytes = gzipped.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
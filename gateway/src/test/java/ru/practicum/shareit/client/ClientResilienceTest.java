@@ -0,0 +1,234 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.cache.GatewayCacheProperties;
+import ru.practicum.shareit.cache.GatewayResponseCache;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClientResilienceTest {
+
+    private static final int WINDOW = 4;
+
+    private HttpServer server;
+    private PoolingAsyncClientConnectionManager connectionManager;
+    private ClientResilience resilience;
+    private UserClient userClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/users/1", exchange -> respond(exchange, 200, "{\"id\":1}"));
+        server.createContext("/users/2", exchange -> respond(exchange, 500, "{\"error\":\"Internal Server Error\"}"));
+        // Таймауты IO-реактора HttpClient проверяются раз в секунду, поэтому задержка заметно больше read timeout
+        server.createContext("/users/3", exchange -> {
+            sleep(Duration.ofSeconds(3));
+            respond(exchange, 200, "{\"id\":3}");
+        });
+        server.start();
+
+        HttpClientConfig config = new HttpClientConfig();
+        HttpClientProperties httpProperties = new HttpClientProperties();
+        httpProperties.setReadTimeout(Duration.ofMillis(200));
+        connectionManager = config.gatewayConnectionManager(httpProperties);
+        ClientHttpConnector connector = config.gatewayClientHttpConnector(
+                config.gatewayHttpClient(connectionManager, httpProperties));
+
+        ResilienceProperties resilienceProperties = new ResilienceProperties();
+        resilienceProperties.setSlidingWindowSize(WINDOW);
+        resilienceProperties.setMinimumNumberOfCalls(WINDOW);
+        resilienceProperties.setWaitInOpenState(Duration.ofMinutes(1));
+        resilienceProperties.setMaxConcurrentCalls(1);
+        resilience = new ClientResilience(resilienceProperties);
+
+        GatewayCacheProperties cacheProperties = new GatewayCacheProperties();
+        cacheProperties.setEnabled(false);
+        userClient = new UserClient("http://localhost:" + server.getAddress().getPort(), WebClient.builder(),
+                connector, new GatewayResponseCache(cacheProperties), new RequestCoalescer(false, Duration.ZERO),
+                resilience);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void whenServerKeepsFailing_thenCircuitOpensAndRequestsFailFast() {
+        for (int i = 0; i < WINDOW; i++) {
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, userClient.getUser(2L).block().getStatusCode());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getState("/users"));
+        assertThrows(CallNotPermittedException.class, () -> userClient.getUser(1L).block());
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getState("/items"));
+    }
+
+    @Test
+    void whenServerTimesOut_thenCircuitOpens() {
+        for (int i = 0; i < WINDOW; i++) {
+            assertThrows(RuntimeException.class, () -> userClient.getUser(3L).block());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getState("/users"));
+    }
+
+    @Test
+    void whenBulkheadIsFull_thenRequestIsRejected() {
+        Disposable slowRequest = userClient.getUser(3L).subscribe(response -> { }, error -> { });
+
+        assertThrows(BulkheadFullException.class, () -> userClient.getUser(1L).block());
+        slowRequest.dispose();
+    }
+
+    @Test
+    void whenConnectionRefused_thenRetriesUntilBudgetIsSpent() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setRetryBackoff(Duration.ofMillis(10));
+        properties.setRetryBudgetRatio(0);
+        properties.setRetryBudgetReserve(3);
+        ClientResilience retrying = new ClientResilience(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        retrying.bindTo(registry);
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<ResponseEntity<Object>> refused = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new ConnectException("Connection refused"));
+        });
+
+        assertThrows(RuntimeException.class, () -> retrying.protect("/users", refused).block());
+        assertEquals(3, attempts.get());
+
+        assertThrows(RuntimeException.class, () -> retrying.protect("/users", refused).block());
+        assertEquals(4, attempts.get());
+        assertEquals(2, registry.counter("shareit.gateway.retries", "name", "/users").count());
+        assertEquals(1, registry.counter("shareit.gateway.retry.budget.exhausted", "name", "/users").count());
+    }
+
+    @Test
+    void whenServerTimedOut_thenRequestIsNotRetried() {
+        ClientResilience retrying = new ClientResilience(new ResilienceProperties());
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<ResponseEntity<Object>> timedOut = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new TimeoutException("Read timed out"));
+        });
+
+        assertThrows(RuntimeException.class, () -> retrying.protect("/users", timedOut).block());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void whenResponseIsSlowerThanPercentile_thenHedgedRequestWins() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setHedgingEnabled(true);
+        properties.setHedgingMinSamples(16);
+        ClientResilience hedging = new ClientResilience(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hedging.bindTo(registry);
+        for (int i = 0; i < 16; i++) {
+            hedging.protectHedged("/items", Mono.just(ResponseEntity.ok().build())).block();
+        }
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<ResponseEntity<Object>> firstAttemptStalls = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.just(ResponseEntity.ok().<Object>build()).delayElement(Duration.ofSeconds(5))
+                : Mono.just(ResponseEntity.ok().build()));
+
+        ResponseEntity<Object> response = hedging.protectHedged("/items", firstAttemptStalls).block(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, attempts.get());
+        assertEquals(1, registry.counter("shareit.gateway.hedges.sent", "name", "/items").count());
+        assertEquals(1, registry.counter("shareit.gateway.hedges.won", "name", "/items").count());
+    }
+
+    @Test
+    void whenPrimaryFailsAfterHedgeWasSent_thenHedgeResponseIsReturned() {
+        ClientResilience hedging = warmedUpHedging();
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<ResponseEntity<Object>> primaryFailsLater = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.<ResponseEntity<Object>>error(new IllegalStateException("Primary failed"))
+                        .delaySubscription(Duration.ofMillis(300))
+                : Mono.just(ResponseEntity.ok().<Object>build()).delayElement(Duration.ofMillis(600)));
+
+        ResponseEntity<Object> response = hedging.protectHedged("/items", primaryFailsLater).block(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void whenPrimaryFailsBeforeHedgeDelay_thenItsErrorIsReturnedWithoutHedge() {
+        ClientResilience hedging = warmedUpHedging();
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<ResponseEntity<Object>> primaryFails = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalStateException("Primary failed"));
+        });
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> hedging.protectHedged("/items", primaryFails).block(Duration.ofSeconds(2)));
+
+        assertEquals("Primary failed", e.getMessage());
+        assertEquals(1, attempts.get());
+    }
+
+    // Hedging включается после набора статистики задержек; быстрые ответы дают минимальную задержку hedge
+    private static ClientResilience warmedUpHedging() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setHedgingEnabled(true);
+        properties.setHedgingMinSamples(16);
+        properties.setHedgingMinDelay(Duration.ofMillis(100));
+        ClientResilience hedging = new ClientResilience(properties);
+        for (int i = 0; i < 16; i++) {
+            hedging.protectHedged("/items", Mono.just(ResponseEntity.ok().build())).block();
+        }
+        return hedging;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
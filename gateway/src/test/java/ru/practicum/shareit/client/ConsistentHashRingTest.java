@@ -0,0 +1,128 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Симуляция: сколько ключей переезжает при смене состава реплик и насколько неравномерна нагрузка
+@Slf4j
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 20_000;
+    private static final int VIRTUAL_NODES = 160;
+
+    @Test
+    void whenReplicaLeaves_thenOnlyItsKeysMove() {
+        List<ServerInstance> instances = instances(5);
+        ConsistentHashRing ring = new ConsistentHashRing(instances, VIRTUAL_NODES);
+        ServerInstance leaving = instances.get(2);
+
+        int moved = 0;
+        for (int key = 0; key < KEYS; key++) {
+            ServerInstance before = ring.find(String.valueOf(key), instance -> true);
+            ServerInstance after = ring.find(String.valueOf(key), instance -> instance != leaving);
+            if (before != after) {
+                assertSame(leaving, before);
+                moved++;
+            }
+        }
+
+        double movedShare = (double) moved / KEYS;
+        log.info("Replica left 5 -> 4: {}% of keys moved, ideal 20%", Math.round(movedShare * 1000) / 10.0);
+        assertTrue(movedShare < 0.25);
+    }
+
+    @Test
+    void whenReplicaJoins_thenKeysMoveOnlyToIt() {
+        List<ServerInstance> instances = instances(6);
+        ConsistentHashRing before = new ConsistentHashRing(instances.subList(0, 5), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(instances, VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int key = 0; key < KEYS; key++) {
+            ServerInstance oldOwner = before.find(String.valueOf(key), instance -> true);
+            ServerInstance newOwner = after.find(String.valueOf(key), instance -> true);
+            if (oldOwner != newOwner) {
+                assertSame(instances.get(5), newOwner);
+                moved++;
+            }
+        }
+
+        double movedShare = (double) moved / KEYS;
+        log.info("Replica joined 5 -> 6: {}% of keys moved, ideal 16.7%", Math.round(movedShare * 1000) / 10.0);
+        assertTrue(movedShare < 0.22);
+    }
+
+    @Test
+    void whenKeysSpreadOverRing_thenLoadSkewIsSmall() {
+        List<ServerInstance> instances = instances(5);
+        ConsistentHashRing ring = new ConsistentHashRing(instances, VIRTUAL_NODES);
+        Map<ServerInstance, Integer> keysPerInstance = new HashMap<>();
+
+        for (int key = 0; key < KEYS; key++) {
+            keysPerInstance.merge(ring.find(String.valueOf(key), instance -> true), 1, Integer::sum);
+        }
+
+        double skew = maxToAverage(keysPerInstance.values());
+        log.info("Keys per replica {}, max/avg {}", keysPerInstance.values(), skew);
+        assertTrue(skew < 1.3);
+    }
+
+    @Test
+    void whenFewUsersAreHot_thenBoundedLoadCapsEveryReplica() {
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.setRouting(LoadBalancerProperties.Routing.CONSISTENT_HASH);
+        properties.setUrls(instances(5).stream().map(ServerInstance::getUri).collect(Collectors.toList()));
+        ServerLoadBalancer loadBalancer = new ServerLoadBalancer(properties, "http://shareit-server", null);
+
+        // Половину запросов в работе дают 5 пользователей, остальные распределены по 5000
+        for (int request = 0; request < 10_000; request++) {
+            String userId = request % 2 == 0 ? String.valueOf(request % 5) : String.valueOf(1000 + request % 5000);
+            loadBalancer.choose(userId).requestStarted();
+        }
+
+        List<Integer> outstanding = loadBalancer.getInstances().stream()
+                .map(ServerInstance::getOutstanding)
+                .collect(Collectors.toList());
+        double skew = maxToAverage(outstanding);
+        log.info("Outstanding per replica with bounded load {}, max/avg {}", outstanding, skew);
+        assertEquals(10_000, outstanding.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(skew <= properties.getLoadFactor() + 0.01);
+    }
+
+    @Test
+    void whenReplicaIsNotLoaded_thenUserStaysOnIt() {
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.setRouting(LoadBalancerProperties.Routing.CONSISTENT_HASH);
+        properties.setUrls(instances(5).stream().map(ServerInstance::getUri).collect(Collectors.toList()));
+        ServerLoadBalancer loadBalancer = new ServerLoadBalancer(properties, "http://shareit-server", null);
+
+        ServerInstance preferred = loadBalancer.choose("42");
+        for (int i = 0; i < 100; i++) {
+            assertSame(preferred, loadBalancer.choose("42"));
+        }
+    }
+
+    private static List<ServerInstance> instances(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ServerInstance(URI.create("http://server-" + i + ":9090")))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static double maxToAverage(Collection<Integer> loads) {
+        double average = loads.stream().mapToInt(Integer::intValue).average().orElse(0);
+        return loads.stream().mapToInt(Integer::intValue).max().orElse(0) / average;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RequestCoalescerTest {
+
+    private static final int CALLERS = 50;
+
+    private ExecutorService executor;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(CALLERS);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void whenConcurrentIdenticalRequests_thenOneUpstreamCall() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(true, Duration.ofSeconds(5));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<Object>>> results = new ArrayList<>();
+
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return coalescer.execute("/items/1|1", this::slowUpstream).block();
+            }));
+        }
+        start.countDown();
+
+        for (Future<ResponseEntity<Object>> result : results) {
+            assertEquals(HttpStatus.OK, result.get().getStatusCode());
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void whenDifferentUsers_thenRequestsAreNotShared() {
+        RequestCoalescer coalescer = new RequestCoalescer(true, Duration.ofSeconds(5));
+
+        Mono.zip(coalescer.execute("/items/1|1", this::slowUpstream),
+                coalescer.execute("/items/1|2", this::slowUpstream)).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void whenRequestsAreSequential_thenEachGoesUpstream() {
+        RequestCoalescer coalescer = new RequestCoalescer(true, Duration.ofSeconds(5));
+
+        coalescer.execute("/items/1|1", this::slowUpstream).block();
+        coalescer.execute("/items/1|1", this::slowUpstream).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void whenUpstreamHangs_thenAllCallersTimeOutAndKeyIsReleased() {
+        RequestCoalescer coalescer = new RequestCoalescer(true, Duration.ofMillis(100));
+
+        Mono<ResponseEntity<Object>> first = coalescer.execute("/items/1|1", Mono::never);
+        Mono<ResponseEntity<Object>> second = coalescer.execute("/items/1|1", Mono::never);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> Mono.zip(first, second).block());
+        assertEquals(TimeoutException.class, error.getCause().getClass());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void whenAllCallersCancel_thenKeyIsReleased() {
+        RequestCoalescer coalescer = new RequestCoalescer(true, Duration.ofSeconds(5));
+
+        Disposable first = coalescer.execute("/items/1|1", Mono::never).subscribe();
+        Disposable second = coalescer.execute("/items/1|1", Mono::never).subscribe();
+        assertEquals(1, coalescer.inFlightCount());
+
+        first.dispose();
+        assertEquals(1, coalescer.inFlightCount());
+        second.dispose();
+        assertEquals(0, coalescer.inFlightCount());
+
+        coalescer.execute("/items/1|1", this::slowUpstream).block();
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    private Mono<ResponseEntity<Object>> slowUpstream() {
+        return Mono.fromCallable(() -> {
+            upstreamCalls.incrementAndGet();
+            return ResponseEntity.ok().<Object>build();
+        }).delayElement(Duration.ofMillis(300));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ResponseBodiesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void toJson_whenSmileBody_thenDecodesToJsonTree() throws Exception {
+        byte[] smile = Jackson2ObjectMapperBuilder.smile().build().writeValueAsBytes(Map.of("id", 1));
+
+        assertEquals(1, ResponseBodies.toJson(objectMapper, response(smile, WireFormat.SMILE.getMediaType()))
+                .get("id").asInt());
+    }
+
+    @Test
+    void toJson_whenJsonBody_thenParsesTree() {
+        byte[] json = "{\"id\":2}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(2, ResponseBodies.toJson(objectMapper, response(json, MediaType.APPLICATION_JSON))
+                .get("id").asInt());
+    }
+
+    @Test
+    void toJson_whenEmptyBody_thenNull() {
+        assertNull(ResponseBodies.toJson(objectMapper, response(new byte[0], MediaType.APPLICATION_JSON)));
+    }
+
+    @Test
+    void toJson_whenNotJson_thenEmbedsText() {
+        byte[] text = "not json".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("not json", ResponseBodies.toJson(objectMapper, response(text, MediaType.APPLICATION_JSON))
+                .asText());
+        assertEquals("not json", ResponseBodies.toJson(objectMapper, response(text, MediaType.TEXT_PLAIN))
+                .asText());
+    }
+
+    private static ResponseEntity<Object> response(byte[] body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
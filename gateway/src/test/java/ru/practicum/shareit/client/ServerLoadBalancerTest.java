@@ -0,0 +1,202 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServerLoadBalancerTest {
+
+    private static final int REPLICAS = 3;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private PoolingAsyncClientConnectionManager connectionManager;
+    private ClientHttpConnector connector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < REPLICAS; i++) {
+            replicas.add(new Replica());
+        }
+        HttpClientConfig config = new HttpClientConfig();
+        HttpClientProperties httpProperties = new HttpClientProperties();
+        connectionManager = config.gatewayConnectionManager(httpProperties);
+        connector = config.gatewayClientHttpConnector(config.gatewayHttpClient(connectionManager, httpProperties));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+        replicas.forEach(replica -> replica.server.stop(0));
+    }
+
+    @Test
+    void whenAllReplicasHealthy_thenRequestsAreSpreadAcrossThem() {
+        WebClient client = clientThrough(loadBalancer(new LoadBalancerProperties()));
+
+        for (int i = 0; i < 60; i++) {
+            assertEquals(200, get(client));
+        }
+
+        replicas.forEach(replica -> assertTrue(replica.hits.get() > 0));
+    }
+
+    @Test
+    void whenReplicaFailsConsecutively_thenItIsEjected() {
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.setConsecutiveErrors(3);
+        properties.setEjectionTime(Duration.ofMinutes(1));
+        ServerLoadBalancer loadBalancer = loadBalancer(properties);
+        WebClient client = clientThrough(loadBalancer);
+        Replica failing = replicas.get(0);
+        failing.status.set(500);
+
+        for (int i = 0; i < 60; i++) {
+            get(client);
+        }
+        int hitsAfterEjection = failing.hits.get();
+        for (int i = 0; i < 30; i++) {
+            assertEquals(200, get(client));
+        }
+
+        assertEquals(3, hitsAfterEjection);
+        assertEquals(3, failing.hits.get());
+        assertEquals(1, loadBalancer.getInstances().get(0).getEjections());
+    }
+
+    @Test
+    void whenHealthCheckFails_thenReplicaLeavesRotationUntilItRecovers() {
+        ServerLoadBalancer loadBalancer = loadBalancer(new LoadBalancerProperties());
+        Replica sick = replicas.get(1);
+        sick.healthy.set(false);
+
+        loadBalancer.checkHealth().block();
+
+        ServerInstance sickInstance = loadBalancer.getInstances().get(1);
+        assertFalse(sickInstance.isHealthy());
+        for (int i = 0; i < 30; i++) {
+            assertTrue(loadBalancer.choose(null) != sickInstance);
+        }
+
+        sick.healthy.set(true);
+        loadBalancer.checkHealth().block();
+
+        assertTrue(sickInstance.isHealthy());
+    }
+
+    @Test
+    void whenAllReplicasOutOfRotation_thenStillRoutesToSomeReplica() {
+        ServerLoadBalancer loadBalancer = loadBalancer(new LoadBalancerProperties());
+        replicas.forEach(replica -> replica.healthy.set(false));
+
+        loadBalancer.checkHealth().block();
+
+        assertEquals(200, get(clientThrough(loadBalancer)));
+    }
+
+    @Test
+    void whenInstanceIsExcluded_thenItIsNotChosenInEitherRoutingMode() {
+        for (LoadBalancerProperties.Routing routing : LoadBalancerProperties.Routing.values()) {
+            LoadBalancerProperties properties = new LoadBalancerProperties();
+            properties.setRouting(routing);
+            ServerLoadBalancer loadBalancer = loadBalancer(properties);
+            ServerInstance preferred = loadBalancer.choose("42");
+
+            for (int i = 0; i < 50; i++) {
+                assertNotSame(preferred, loadBalancer.choose("42", preferred));
+            }
+        }
+    }
+
+    @Test
+    void whenHedgeExcludesPrimaryRoute_thenItGoesToAnotherReplica() {
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.setRouting(LoadBalancerProperties.Routing.CONSISTENT_HASH);
+        WebClient client = clientThrough(loadBalancer(properties));
+        Mono<Integer> call = client.get()
+                .uri("/users/1")
+                .header("X-Sharer-User-Id", "42")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()));
+        AtomicReference<ServerInstance> route = new AtomicReference<>();
+
+        call.contextWrite(Context.of(ServerLoadBalancer.PRIMARY_ROUTE, route)).block();
+        call.contextWrite(Context.of(ServerLoadBalancer.EXCLUDED_ROUTE, route)).block();
+
+        assertEquals(2, replicas.stream().filter(replica -> replica.hits.get() == 1).count());
+    }
+
+    private ServerLoadBalancer loadBalancer(LoadBalancerProperties properties) {
+        properties.setUrls(replicas.stream()
+                .map(replica -> URI.create("http://localhost:" + replica.server.getAddress().getPort()))
+                .collect(Collectors.toList()));
+        return new ServerLoadBalancer(properties, "http://shareit-server", connector);
+    }
+
+    private WebClient clientThrough(ServerLoadBalancer loadBalancer) {
+        return WebClient.builder()
+                .baseUrl("http://shareit-server")
+                .clientConnector(connector)
+                .filter(loadBalancer)
+                .build();
+    }
+
+    private static int get(WebClient client) {
+        return client.get()
+                .uri("/users/1")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()))
+                .block();
+    }
+
+    private static class Replica {
+        private final HttpServer server;
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicInteger status = new AtomicInteger(200);
+        private final AtomicBoolean healthy = new AtomicBoolean(true);
+
+        Replica() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/users", exchange -> {
+                hits.incrementAndGet();
+                respond(exchange, status.get(), "{\"id\":1}");
+            });
+            server.createContext("/actuator/health", exchange -> respond(exchange, healthy.get() ? 200 : 503,
+                    healthy.get() ? "{\"status\":\"UP\"}" : "{\"status\":\"DOWN\"}"));
+            server.start();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
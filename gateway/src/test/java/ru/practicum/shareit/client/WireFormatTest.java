@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WireFormatTest {
+
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Test
+    void requestFilter_whenSmile_thenServerReceivesSmileBody() throws Exception {
+        AtomicReference<Headers> headers = new AtomicReference<>();
+        AtomicReference<byte[]> body = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/users", exchange -> {
+            headers.set(exchange.getRequestHeaders());
+            body.set(exchange.getRequestBody().readAllBytes());
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            WebClient.builder()
+                    .filter(WireFormat.SMILE.requestFilter())
+                    .build()
+                    .post().uri("http://localhost:" + server.getAddress().getPort() + "/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .bodyValue(UserDto.builder().name("User").email("user@example.com").build())
+                    .retrieve().toBodilessEntity().block();
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(WireFormat.SMILE.getMediaType().toString(), headers.get().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertTrue(headers.get().getFirst(HttpHeaders.ACCEPT).startsWith(WireFormat.SMILE.getMediaType().toString()));
+        assertEquals("user@example.com", smileMapper.readValue(body.get(), UserDto.class).getEmail());
+    }
+
+    @Test
+    void smileToJson_thenProducesEquivalentJson() throws Exception {
+        Map<String, Object> value = Map.of("id", 1, "name", "User", "items", List.of(1, 2, 3));
+
+        byte[] json = WireFormat.smileToJson(smileMapper.writeValueAsBytes(value));
+
+        assertEquals(jsonMapper.valueToTree(value), jsonMapper.readTree(json));
+    }
+
+    @Test
+    void responseAdvice_whenClientDidNotAskForSmile_thenTranscodesToJson() throws Exception {
+        byte[] smile = smileMapper.writeValueAsBytes(Map.of("id", 1));
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+
+        Object body = new WireFormatResponseAdvice().beforeBodyWrite(smile, null, WireFormat.SMILE.getMediaType(),
+                ByteArrayHttpMessageConverter.class, request(MediaType.ALL), response);
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(1, jsonMapper.readTree((byte[]) body).get("id").asInt());
+    }
+
+    @Test
+    void responseAdvice_whenClientAcceptsSmile_thenPassesBytesThrough() throws Exception {
+        byte[] smile = smileMapper.writeValueAsBytes(Map.of("id", 1));
+
+        Object body = new WireFormatResponseAdvice().beforeBodyWrite(smile, null, WireFormat.SMILE.getMediaType(),
+                ByteArrayHttpMessageConverter.class, request(WireFormat.SMILE.getMediaType()),
+                new ServletServerHttpResponse(new MockHttpServletResponse()));
+
+        assertSame(smile, body);
+        assertArrayEquals(smile, (byte[]) body);
+    }
+
+    private static ServletServerHttpRequest request(MediaType accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1");
+        request.addHeader(HttpHeaders.ACCEPT, accept.toString());
+        return new ServletServerHttpRequest(request);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void whenRuntimeSupportsVirtualThreads_thenExecutorIsCreated_otherwiseModeFallsBack() throws Exception {
+        Optional<ExecutorService> executor = VirtualThreads.newPerTaskExecutor("test-", "off");
+
+        assertEquals(Runtime.version().feature() >= 21, executor.isPresent());
+        if (executor.isPresent()) {
+            String name = executor.get().submit(() -> Thread.currentThread().toString()).get(5, TimeUnit.SECONDS);
+            assertTrue(name.startsWith("VirtualThread"), name);
+            executor.get().shutdown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.dashboard.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.dashboard.service.DashboardService;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.request.client.ItemRequestClient;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@WebMvcTest(DashboardGatewayController.class)
+@Import(DashboardService.class)
+public class DashboardGatewayControllerTest {
+
+    public static final String USER_ID = "X-Sharer-User-Id";
+    private static final Duration SERVER_LATENCY = Duration.ofMillis(300);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserClient userClient;
+
+    @MockBean
+    private ItemClient itemClient;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    @MockBean
+    private ItemRequestClient itemRequestClient;
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(userClient.getUser(1L)).thenReturn(slowJson("{\"id\":1,\"name\":\"Owner\"}"));
+        Mockito.when(itemClient.getItems(1L)).thenReturn(slowJson("[{\"id\":1}]"));
+        Mockito.when(bookingClient.getBookingsByOwnerId(1L, "WAITING", 0, 10)).thenReturn(slowJson("[{\"id\":5}]"));
+        Mockito.when(itemRequestClient.getRequests(1L)).thenReturn(slowJson("[]"));
+    }
+
+    @Test
+    public void testGetDashboardThenSectionsAreFetchedInParallel() throws Exception {
+        long start = System.nanoTime();
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/me/dashboard")
+                        .header(USER_ID, 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.user.status").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.user.body.name").value("Owner"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.body[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.waitingBookings.body[0].id").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.requests.body").isArray());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(SERVER_LATENCY.multipliedBy(3)) < 0, "dashboard took " + elapsed);
+    }
+
+    @Test
+    public void testGetDashboardWhenSectionFailsThenOtherSectionsAreReturned() throws Exception {
+        Mockito.when(bookingClient.getBookingsByOwnerId(1L, "WAITING", 0, 10))
+                .thenReturn(Mono.error(new TimeoutException("Response timeout")));
+        Mockito.when(itemClient.getItems(1L)).thenReturn(Mono.just(ResponseEntity.status(404)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"message\":\"Entity not found\"}".getBytes(StandardCharsets.UTF_8))));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/me/dashboard")
+                        .header(USER_ID, 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.user.status").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.status").value(404))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.body.message").value("Entity not found"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.waitingBookings.status").value(504))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.waitingBookings.body.error").value("Response timeout"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.requests.status").value(200));
+    }
+
+    private static Mono<ResponseEntity<Object>> slowJson(String body) {
+        return Mono.delay(SERVER_LATENCY)
+                .map(tick -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -6,14 +6,20 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.nio.charset.StandardCharsets;
+
 @WebMvcTest(ItemGatewayController.class)
 public class ItemGatewayControllerTest {
 
@@ -27,65 +33,123 @@ public class ItemGatewayControllerTest {
 
     @BeforeEach
     public void setUp() {
-        Mockito.when(itemClient.saveItem(Mockito.anyLong(), Mockito.any(ItemDto.class)))
-                .thenReturn(ResponseEntity.ok().build());
+        Mockito.when(itemClient.saveItem(Mockito.anyLong(), Mockito.any(ItemDto.class), Mockito.nullable(String.class)))
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemClient.updateItem(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(ItemDto.class)))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemClient.getItem(Mockito.anyLong(), Mockito.anyLong()))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemClient.getItems(Mockito.anyLong()))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemClient.searchByText(Mockito.anyString()))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemClient.saveComment(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(CommentDto.class)))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
     }
 
     @Test
     public void testSaveItemWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.post("/items")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/items")
                         .header(USER_ID, 1L)
                         .contentType("application/json")
                         .content("{\"name\":\"Item\",\"description\":\"Description\",\"available\":true}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
+    @Test
+    public void testSaveItemWhenIdempotencyKeyGivenThenItIsPassedToClient() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/items")
+                        .header(USER_ID, 1L)
+                        .header("Idempotency-Key", "c0ffee")
+                        .contentType("application/json")
+                        .content("{\"name\":\"Item\",\"description\":\"Description\",\"available\":true}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.verify(itemClient).saveItem(Mockito.eq(1L), Mockito.any(ItemDto.class), Mockito.eq("c0ffee"));
+    }
+
     @Test
     public void testUpdateItemWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.patch("/items/1")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.patch("/items/1")
                         .header(USER_ID, 1L)
                         .contentType("application/json")
                         .content("{\"name\":\"Updated Item\",\"description\":\"Updated Description\",\"available\":false}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
     @Test
     public void testGetItemWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.get("/items/1")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/items/1")
                         .header(USER_ID, 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
     @Test
     public void testGetItemsWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.get("/items")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/items")
                         .header(USER_ID, 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
     @Test
     public void testSearchByTextWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
                         .param("text", "Item"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
     @Test
     public void testSaveCommentWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.post("/items/1/comment")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/items/1/comment")
                         .header(USER_ID, 1L)
                         .contentType("application/json")
                         .content("{\"text\":\"Great item!\"}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
+
+    @Test
+    public void testGetItemWhenEtagMatchesThenReturnNotModified() throws Exception {
+        Mockito.when(itemClient.getItem(1L, 1L))
+                .thenReturn(Mono.just(ResponseEntity.ok()
+                        .eTag("\"0123456789abcdef\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .<Object>body("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/items/1")
+                        .header(USER_ID, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0123456789abcdef\""))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().bytes(new byte[0]));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.knownids;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    void mightContain_whenIdWasPut_thenAlwaysTrue() {
+        BloomFilter bloom = BloomFilter.create(10_000, 0.01, Long.MAX_VALUE);
+        for (long id = 1; id <= 10_000; id += 2) {
+            bloom.put(id);
+        }
+
+        for (long id = 1; id <= 10_000; id += 2) {
+            assertTrue(bloom.mightContain(id));
+        }
+    }
+
+    @Test
+    void mightContain_whenIdAbsent_thenFalsePositiveRateCloseToTarget() {
+        BloomFilter bloom = BloomFilter.create(50_000, 0.01, Long.MAX_VALUE);
+        for (long id = 1; id <= 50_000; id++) {
+            bloom.put(id);
+        }
+
+        int falsePositives = 0;
+        for (long id = 50_001; id <= 150_000; id++) {
+            if (bloom.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+
+        double measured = falsePositives / 100_000.0;
+        assertTrue(measured < 0.02, "measured false positive rate " + measured);
+        assertTrue(bloom.expectedFpp() < 0.02);
+    }
+
+    @Test
+    void create_whenMemoryCapped_thenStaysWithinBudget() {
+        BloomFilter bloom = BloomFilter.create(1_000_000, 0.001, 8 * 1024 * 8);
+
+        assertTrue(bloom.sizeInBytes() <= 8 * 1024);
+    }
+}
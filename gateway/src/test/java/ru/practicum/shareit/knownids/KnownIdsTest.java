@@ -0,0 +1,158 @@
+package ru.practicum.shareit.knownids;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KnownIdsTest {
+
+    private final Map<String, NavigableSet<Long>> server = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private KnownIdsProperties properties;
+    private KnownIds knownIds;
+
+    @BeforeEach
+    void setUp() {
+        server.put(KnownIds.USERS, new ConcurrentSkipListSet<>(List.of(1L, 2L, 3L, 5L)));
+        server.put(KnownIds.ITEMS, new ConcurrentSkipListSet<>(List.of(1L, 2L)));
+        server.put(KnownIds.BOOKINGS, new ConcurrentSkipListSet<>());
+        properties = new KnownIdsProperties();
+        properties.setPageSize(2);
+        properties.setVisibilityLag(Duration.ZERO);
+        knownIds = new KnownIds(properties, WebClient.builder()
+                .exchangeFunction(request -> {
+                    String resource = request.url().getPath().split("/")[1];
+                    Map<String, String> query = UriComponentsBuilder.fromUri(request.url()).build()
+                            .getQueryParams().toSingleValueMap();
+                    String page = server.get(resource).tailSet(Long.parseLong(query.get("after")), false).stream()
+                            .limit(Long.parseLong(query.get("size")))
+                            .map(String::valueOf)
+                            .collect(Collectors.joining(",", "[", "]"));
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(page)
+                            .build());
+                })
+                .build(), clock::get);
+    }
+
+    @Test
+    void mightExist_whenNotLoaded_thenAssumesEverythingExists() {
+        assertTrue(knownIds.mightExist(KnownIds.USERS, 4));
+    }
+
+    @Test
+    void mightExist_whenLoaded_thenRejectsOnlyMissingIdsBelowMax() {
+        knownIds.refresh().block();
+
+        new TreeSet<>(server.get(KnownIds.USERS)).forEach(id -> assertTrue(knownIds.mightExist(KnownIds.USERS, id)));
+        assertFalse(knownIds.mightExist(KnownIds.USERS, 4));
+        assertTrue(knownIds.mightExist(KnownIds.USERS, 6));
+        assertTrue(knownIds.mightExist(KnownIds.BOOKINGS, 1));
+    }
+
+    @Test
+    void refresh_whenNewIdsCreated_thenPicksThemUpIncrementally() {
+        knownIds.refresh().block();
+        server.get(KnownIds.ITEMS).addAll(List.of(3L, 4L, 5L, 10L));
+
+        knownIds.refresh().block();
+
+        for (long id : List.of(1L, 2L, 3L, 4L, 5L, 10L)) {
+            assertTrue(knownIds.mightExist(KnownIds.ITEMS, id));
+        }
+        assertFalse(knownIds.mightExist(KnownIds.ITEMS, 7));
+    }
+
+    @Test
+    void refresh_whenLowerIdCommitsAfterHigherOne_thenNeverRejectsIt() {
+        properties.setVisibilityLag(Duration.ofSeconds(30));
+        knownIds.refresh().block();
+        assertTrue(knownIds.mightExist(KnownIds.USERS, 4));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        knownIds.refresh().block();
+        assertFalse(knownIds.mightExist(KnownIds.USERS, 4));
+
+        // Транзакция с id 7 еще не зафиксирована, а 8 уже видна
+        server.get(KnownIds.USERS).add(8L);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        knownIds.refresh().block();
+        assertTrue(knownIds.mightExist(KnownIds.USERS, 7));
+
+        server.get(KnownIds.USERS).add(7L);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        knownIds.refresh().block();
+        assertTrue(knownIds.mightExist(KnownIds.USERS, 7));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        knownIds.refresh().block();
+        assertTrue(knownIds.mightExist(KnownIds.USERS, 7));
+        assertTrue(knownIds.mightExist(KnownIds.USERS, 8));
+        assertFalse(knownIds.mightExist(KnownIds.USERS, 6));
+    }
+
+    @Test
+    void filter_whenIdUnknown_thenRespondsNotFoundWithoutCallingServer() throws Exception {
+        knownIds.refresh().block();
+        KnownIdsFilter filter = new KnownIdsFilter(knownIds, new ObjectMapper());
+
+        assertNotFound(filter, request("GET", "/users/4", null));
+        assertNotFound(filter, request("PATCH", "/items/1", 4L));
+        assertNotFound(filter, request("POST", "/bookings", 4L));
+        assertPassed(filter, request("GET", "/items", 4L));
+        assertPassed(filter, request("GET", "/items/search", 4L));
+        assertPassed(filter, request("DELETE", "/users/4", null));
+        assertPassed(filter, request("GET", "/users/100", null));
+        assertPassed(filter, request("GET", "/items/1", 1L));
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+
+    private static void assertNotFound(KnownIdsFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertEquals(404, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    private static void assertPassed(KnownIdsFilter filter, MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.getDefaults().setCapacity(5);
+        properties.getDefaults().setRefillPerSecond(1);
+    }
+
+    @Test
+    void tryAcquire_whenBurstExhausted_thenRejectsUntilRefill() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("items", "1"));
+        }
+        long waitNanos = limiter.tryAcquire("items", "1");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), waitNanos);
+
+        clock.addAndGet(waitNanos);
+        assertEquals(0, limiter.tryAcquire("items", "1"));
+        assertTrue(limiter.tryAcquire("items", "1") > 0);
+    }
+
+    @Test
+    void tryAcquire_whenDifferentUsersAndGroups_thenBucketsAreIndependent() {
+        RateLimitProperties.Limit bookings = new RateLimitProperties.Limit();
+        bookings.setCapacity(1);
+        bookings.setRefillPerSecond(1);
+        properties.getGroups().put("bookings", bookings);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("bookings", "1"));
+        assertTrue(limiter.tryAcquire("bookings", "1") > 0);
+        assertEquals(0, limiter.tryAcquire("bookings", "2"));
+        assertEquals(0, limiter.tryAcquire("items", "1"));
+    }
+
+    @Test
+    void tryAcquire_whenConcurrentCallers_thenGrantsExactlyCapacity() throws Exception {
+        properties.getDefaults().setCapacity(100);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, clock::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                results.add(executor.submit(() -> limiter.tryAcquire("items", "1")));
+            }
+            long granted = 0;
+            for (Future<Long> result : results) {
+                if (result.get() == 0) {
+                    granted++;
+                }
+            }
+            assertEquals(100, granted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void filter_whenLimitExceeded_thenRespondsTooManyRequestsWithRetryAfter() throws Exception {
+        properties.getDefaults().setCapacity(1);
+        RateLimitFilter filter = new RateLimitFilter(properties,
+                new TokenBucketRateLimiter(properties, clock::get), new ObjectMapper());
+
+        MockHttpServletResponse first = doFilter(filter);
+        assertEquals(200, first.getStatus());
+        assertNull(first.getHeader("Retry-After"));
+
+        MockHttpServletResponse second = doFilter(filter);
+        assertEquals(429, second.getStatus());
+        assertEquals("1", second.getHeader("Retry-After"));
+        assertTrue(second.getContentAsString().contains("Too Many Requests"));
+    }
+
+    @Test
+    void filter_whenManyUnknownPaths_thenTheyShareDefaultGroup() throws Exception {
+        RateLimitProperties.Limit bookings = new RateLimitProperties.Limit();
+        properties.getGroups().put("bookings", bookings);
+        properties.getDefaults().setCapacity(1000);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, clock::get);
+        RateLimitFilter filter = new RateLimitFilter(properties, limiter, new ObjectMapper());
+
+        for (int i = 0; i < 500; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/x" + i);
+            request.addHeader("X-Sharer-User-Id", "1");
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings");
+        request.addHeader("X-Sharer-User-Id", "1");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Корзина общей группы и корзина bookings, а не по одной на каждый путь
+        assertEquals(2, limiter.trackedBuckets());
+    }
+
+    private static MockHttpServletResponse doFilter(RateLimitFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader("X-Sharer-User-Id", "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -9,8 +9,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -27,45 +29,61 @@ public class ItemRequestGatewayControllerTest {
 
     @BeforeEach
     public void setUp() {
-        Mockito.when(itemRequestClient.saveRequest(Mockito.anyLong(), Mockito.any(ItemRequestDto.class)))
-                .thenReturn(ResponseEntity.ok().build());
+        Mockito.when(itemRequestClient.saveRequest(Mockito.anyLong(), Mockito.any(ItemRequestDto.class), Mockito.nullable(String.class)))
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemRequestClient.getRequests(Mockito.anyLong()))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemRequestClient.getRequestsByPagination(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt()))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
         Mockito.when(itemRequestClient.getRequestById(Mockito.anyLong(), Mockito.anyLong()))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
     }
 
     @Test
     public void testSaveRequestWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.post("/requests")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/requests")
                         .header(USER_ID, 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"description\":\"Need a drill\"}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
     @Test
     public void testGetRequestsWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.get("/requests")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/requests")
                         .header(USER_ID, 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
     @Test
     public void testGetRequestsByPaginationWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.get("/requests/all")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/requests/all")
                         .header(USER_ID, 1L)
                         .param("from", "0")
                         .param("size", "10"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
     @Test
     public void testGetRequestByIdWhenValidThenReturnOk() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.get("/requests/1")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/requests/1")
                         .header(USER_ID, 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 }
\ No newline at end of file
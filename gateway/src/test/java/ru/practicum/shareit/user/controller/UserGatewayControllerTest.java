@@ -11,13 +11,17 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -44,11 +48,15 @@ public class UserGatewayControllerTest {
     @Test
     public void testSaveUserWhenValidUserDtoThenSuccess() throws Exception {
         Mockito.when(userClient.saveUser(any(UserDto.class)))
-                .thenReturn(ResponseEntity.ok(validUserDto));
+                .thenReturn(Mono.just(ResponseEntity.ok(validUserDto)));
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/users")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"name\":\"Test User\",\"email\":\"test@example.com\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Test User"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email").value("test@example.com"));
@@ -57,11 +65,15 @@ public class UserGatewayControllerTest {
     @Test
     public void testUpdateUserWhenValidUserIdAndUserDtoThenSuccess() throws Exception {
         Mockito.when(userClient.updateUser(eq(1L), any(UserDto.class)))
-                .thenReturn(ResponseEntity.ok(validUserDto));
+                .thenReturn(Mono.just(ResponseEntity.ok(validUserDto)));
 
-        mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"name\":\"Updated User\",\"email\":\"updated@example.com\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Test User"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email").value("test@example.com"));
@@ -70,9 +82,13 @@ public class UserGatewayControllerTest {
     @Test
     public void testGetUserWhenValidUserIdThenSuccess() throws Exception {
         Mockito.when(userClient.getUser(eq(1L)))
-                .thenReturn(ResponseEntity.ok(validUserDto));
+                .thenReturn(Mono.just(ResponseEntity.ok(validUserDto)));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/users/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/users/1"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1L))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Test User"))
@@ -82,9 +98,13 @@ public class UserGatewayControllerTest {
     @Test
     public void testGetUsersThenSuccess() throws Exception {
         Mockito.when(userClient.getUsers())
-                .thenReturn(ResponseEntity.ok(new UserDto[]{validUserDto}));
+                .thenReturn(Mono.just(ResponseEntity.ok(new UserDto[]{validUserDto})));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/users"))
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/users"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1L))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("Test User"))
@@ -93,9 +113,14 @@ public class UserGatewayControllerTest {
 
     @Test
     public void testDeleteUserWhenValidUserIdThenNoContent() throws Exception {
-        Mockito.doNothing().when(userClient).deleteUser(eq(1L));
+        Mockito.when(userClient.deleteUser(eq(1L)))
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.delete("/users/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(MockMvcRequestBuilders.delete("/users/1"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNoContent());
     }
 }
\ No newline at end of file
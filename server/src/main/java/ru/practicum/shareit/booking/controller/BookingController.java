@@ -2,9 +2,11 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
 import ru.practicum.shareit.booking.service.api.BookingService;
 
 import java.util.List;
@@ -16,6 +18,8 @@ import java.util.List;
 public class BookingController {
 
     public static final String USER_ID = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String APPROXIMATE_TOTAL = "X-Total-Count-Approximate";
 
     private final BookingService service;
 
@@ -42,20 +46,55 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getBookingsByBookerId(@RequestHeader(USER_ID) Long bookerId,
-                                                          @RequestParam(required = false, defaultValue = "ALL") String state,
-                                                          @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                          @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingResponseDto>> getBookingsByBookerId(@RequestHeader(USER_ID) Long bookerId,
+                                                                          @RequestParam(required = false, defaultValue = "ALL") String state,
+                                                                          @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                          @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                          @RequestParam(name = "cursor", required = false) String cursor,
+                                                                          @RequestParam(name = "total", defaultValue = "false") Boolean total) {
         log.debug("GET request received in booking controller to give list of booking by given booker id={}", bookerId);
-        return service.getBookingsByBookerId(bookerId, state, from, size);
+        List<BookingResponseDto> bookings = cursor != null
+                ? service.getBookingsByBookerIdAfter(bookerId, state, cursor, size)
+                : service.getBookingsByBookerId(bookerId, state, from, size);
+        ResponseEntity.BodyBuilder response = withNextCursor(bookings, size);
+        if (total) {
+            response.header(APPROXIMATE_TOTAL, String.valueOf(service.getApproximateTotalByBookerId(bookerId, state)));
+        }
+        return response.body(bookings);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getBookingsByOwnerId(@RequestHeader(USER_ID) Long ownerId,
-                                                         @RequestParam(required = false, defaultValue = "ALL") String state,
-                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingResponseDto>> getBookingsByOwnerId(@RequestHeader(USER_ID) Long ownerId,
+                                                                         @RequestParam(required = false, defaultValue = "ALL") String state,
+                                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                         @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                         @RequestParam(name = "cursor", required = false) String cursor,
+                                                                         @RequestParam(name = "total", defaultValue = "false") Boolean total) {
         log.debug("GET request received in booking controller to give list of booking by given owner id={}", ownerId);
-        return service.getBookingsByOwnerId(ownerId, state, from, size);
+        List<BookingResponseDto> bookings = cursor != null
+                ? service.getBookingsByOwnerIdAfter(ownerId, state, cursor, size)
+                : service.getBookingsByOwnerId(ownerId, state, from, size);
+        ResponseEntity.BodyBuilder response = withNextCursor(bookings, size);
+        if (total) {
+            response.header(APPROXIMATE_TOTAL, String.valueOf(service.getApproximateTotalByOwnerId(ownerId, state)));
+        }
+        return response.body(bookings);
+    }
+
+    @GetMapping("/ids")
+    public List<Long> getBookingIds(@RequestParam(name = "after", defaultValue = "0") Long afterId,
+                                    @RequestParam(name = "size", defaultValue = "10000") Integer size) {
+        log.debug("GET request received in booking controller to get booking ids after id={}", afterId);
+        return service.getBookingIds(afterId, size);
+    }
+
+    // Курсор следующей страницы отдается и при from/size, чтобы клиент мог перейти на keyset с любой страницы
+    private static ResponseEntity.BodyBuilder withNextCursor(List<BookingResponseDto> bookings, int size) {
+        String nextCursor = BookingCursor.next(bookings, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR, nextCursor);
+        }
+        return response;
     }
 }
\ No newline at end of file
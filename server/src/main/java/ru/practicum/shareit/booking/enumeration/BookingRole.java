@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.enumeration;
+
+// С какой стороны пользователь смотрит на бронирования
+public enum BookingRole {
+    BOOKER,
+    OWNER
+}
\ No newline at end of file
@@ -1,10 +1,26 @@
 package ru.practicum.shareit.booking.enumeration;
 
+import ru.practicum.shareit.booking.repository.BookingFilter;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+// Каждое состояние - набор границ для одного общего запроса, новое состояние не требует новых запросов
 public enum BookingState {
-    ALL,
-    CURRENT,
-    PAST,
-    FUTURE,
-    WAITING,
-    REJECTED
+    ALL(now -> BookingFilter.ANY),
+    CURRENT(now -> BookingFilter.ANY.startingNotAfter(now).endingAfter(now)),
+    PAST(now -> BookingFilter.ANY.endingBefore(now)),
+    FUTURE(now -> BookingFilter.ANY.startingAfter(now)),
+    WAITING(now -> BookingFilter.ANY.withStatus(BookingStatus.WAITING)),
+    REJECTED(now -> BookingFilter.ANY.withStatus(BookingStatus.REJECTED));
+
+    private final Function<LocalDateTime, BookingFilter> filter;
+
+    BookingState(Function<LocalDateTime, BookingFilter> filter) {
+        this.filter = filter;
+    }
+
+    public BookingFilter filter(LocalDateTime now) {
+        return filter.apply(now);
+    }
 }
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Поток изменений бронирований для gateway. Подписчиков единицы - по одному на каждый gateway,
+// раздачу конкретным пользователям делает gateway
+@Slf4j
+@Component
+public class BookingEventStream {
+
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+    private final Duration heartbeatInterval;
+    private ScheduledExecutorService heartbeats;
+
+    public BookingEventStream(@Value("${shareit.booking-events.heartbeat-interval:5s}") Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Без трафика соединение закрыли бы по таймауту чтения, а мертвых подписчиков не заметили бы
+        heartbeats.scheduleAtFixedRate(() -> send(SseEmitter.event().comment("heartbeat")),
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        log.info("Booking events subscriber connected, {} in total", emitters.size());
+        return emitter;
+    }
+
+    // Клиенты получают событие после коммита, чтобы их запрос по нему уже видел изменение
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingEventDto event) {
+        send(SseEmitter.event().name("booking").data(event, MediaType.APPLICATION_JSON));
+    }
+
+    int getSubscribers() {
+        return emitters.size();
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Booking events subscriber disconnected: {}", e.getMessage());
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -26,10 +26,12 @@ public interface BookingMapper {
             @Mapping(target = "end", source = "bookingRequestDto.end"),
             @Mapping(target = "item", source = "item"),
             @Mapping(target = "booker", source = "booker"),
-            @Mapping(target = "status", ignore = true)
+            @Mapping(target = "status", ignore = true),
+            @Mapping(target = "ownerId", source = "item.owner.id")
     })
     Booking toBooking(BookingRequestDto bookingRequestDto, Item item, User booker);
 
+    @Mapping(target = "ownerId", source = "item.owner.id")
     Booking toBookingFromBookingResponseDto(BookingResponseDto source);
 
     @AfterMapping
@@ -45,4 +45,8 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private BookingStatus status;
+
+    // Копия item.owner.id: списки владельца читаются по индексу (owner_id, start_date) без JOIN с items
+    @Column(name = "owner_id")
+    private Long ownerId;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.pagination;
+
+import ru.practicum.shareit.booking.enumeration.BookingState;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Число бронирований пользователя в каждом состоянии на момент подсчета
+public class BookingCounts {
+
+    private final Map<BookingState, Long> counts;
+
+    public BookingCounts(Map<BookingState, Long> counts) {
+        this.counts = new EnumMap<>(BookingState.class);
+        this.counts.putAll(counts);
+    }
+
+    public long get(BookingState state) {
+        Long count = counts.get(state);
+        return count != null ? count : 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.pagination;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.exception.CustomBadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+// Курсор keyset-пагинации: последнее отданное бронирование в порядке (start DESC, id DESC).
+// Следующая страница начинается строго после него и не зависит от глубины, в отличие от OFFSET
+@Getter
+@RequiredArgsConstructor
+public class BookingCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    // Курсор для клиента непрозрачен, формат может меняться
+    public String encode() {
+        String position = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.valueOf(position.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new CustomBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Курсор следующей страницы; null, если страница неполная и дальше ничего нет
+    public static String next(List<BookingResponseDto> page, int size) {
+        if (page.isEmpty() || page.size() < size) {
+            return null;
+        }
+        BookingResponseDto last = page.get(page.size() - 1);
+        return new BookingCursor(last.getStart(), last.getId()).encode();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.pagination;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.enumeration.BookingRole;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Приблизительные total для списков бронирований. Списки читаются без COUNT, а число по всем
+// состояниям считается одним запросом и живет в кэше до ttl или до изменения бронирований пользователя.
+// Неточность - только сдвиг CURRENT/PAST/FUTURE со временем в пределах ttl
+@Component
+public class BookingTotals {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, BookingCounts> bookerCounts;
+    private final Cache<Long, BookingCounts> ownerCounts;
+
+    public BookingTotals(BookingRepository bookingRepository,
+                         @Value("${shareit.booking-totals.ttl:1m}") Duration ttl,
+                         @Value("${shareit.booking-totals.max-users:100000}") long maxUsers) {
+        this.bookingRepository = bookingRepository;
+        this.bookerCounts = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxUsers).build();
+        this.ownerCounts = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxUsers).build();
+    }
+
+    public BookingCounts forBooker(Long bookerId) {
+        return bookerCounts.get(bookerId, id -> bookingRepository.countBookings(BookingRole.BOOKER, id, LocalDateTime.now()));
+    }
+
+    public BookingCounts forOwner(Long ownerId) {
+        return ownerCounts.get(ownerId, id -> bookingRepository.countBookings(BookingRole.OWNER, id, LocalDateTime.now()));
+    }
+
+    // Сброс после коммита, иначе параллельное чтение успеет снова закешировать старый счетчик
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingEventDto event) {
+        bookerCounts.invalidate(event.getBookerId());
+        ownerCounts.invalidate(event.getOwnerId());
+    }
+}
\ No newline at end of file
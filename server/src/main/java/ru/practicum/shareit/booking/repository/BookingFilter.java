@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import ru.practicum.shareit.booking.enumeration.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Условия на бронирования: start > startAfter, start <= startUntil, end > endAfter, end < endBefore,
+// статус из statuses. Неиспользуемые границы заведомо ничего не отсекают, поэтому у запроса
+// всегда одна и та же форма
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookingFilter {
+
+    static final LocalDateTime MIN = LocalDateTime.of(1, 1, 1, 0, 0);
+    static final LocalDateTime MAX = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    public static final BookingFilter ANY = new BookingFilter(MIN, MAX, MIN, MAX,
+            Collections.unmodifiableSet(EnumSet.allOf(BookingStatus.class)));
+
+    private final LocalDateTime startAfter;
+    private final LocalDateTime startUntil;
+    private final LocalDateTime endAfter;
+    private final LocalDateTime endBefore;
+    private final Set<BookingStatus> statuses;
+
+    public BookingFilter startingAfter(LocalDateTime time) {
+        return new BookingFilter(time, startUntil, endAfter, endBefore, statuses);
+    }
+
+    public BookingFilter startingNotAfter(LocalDateTime time) {
+        return new BookingFilter(startAfter, time, endAfter, endBefore, statuses);
+    }
+
+    public BookingFilter endingAfter(LocalDateTime time) {
+        return new BookingFilter(startAfter, startUntil, time, endBefore, statuses);
+    }
+
+    public BookingFilter endingBefore(LocalDateTime time) {
+        return new BookingFilter(startAfter, startUntil, endAfter, time, statuses);
+    }
+
+    public BookingFilter withStatus(BookingStatus first, BookingStatus... rest) {
+        return new BookingFilter(startAfter, startUntil, endAfter, endBefore,
+                Collections.unmodifiableSet(EnumSet.of(first, rest)));
+    }
+
+    // Список статусов всегда длиной в enum: IN (...) с разным числом параметров дал бы разные запросы
+    List<BookingStatus> paddedStatuses() {
+        List<BookingStatus> padded = new ArrayList<>(statuses);
+        BookingStatus filler = padded.get(0);
+        while (padded.size() < BookingStatus.values().length) {
+            padded.add(filler);
+        }
+        return padded;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.enumeration.BookingRole;
+import ru.practicum.shareit.booking.enumeration.BookingState;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
+
+import java.time.LocalDateTime;
+
+// Параметры выборки списка бронирований. Порядок всегда (start DESC, id DESC)
+@Getter
+@Builder
+@ToString
+public class BookingQuery {
+
+    private final BookingRole role;
+    private final Long userId;
+    private final BookingState state;
+    // Момент, относительно которого считаются CURRENT, PAST и FUTURE
+    private final LocalDateTime now;
+    // null - с начала списка
+    private final BookingCursor cursor;
+    private final long offset;
+    private final int limit;
+}
\ No newline at end of file
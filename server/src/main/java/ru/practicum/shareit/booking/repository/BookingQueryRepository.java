@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.enumeration.BookingRole;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.pagination.BookingCounts;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingQueryRepository {
+
+    List<Booking> findBookings(BookingQuery query);
+
+    // Число бронирований пользователя в каждом состоянии одним проходом
+    BookingCounts countBookings(BookingRole role, Long userId, LocalDateTime now);
+}
\ No newline at end of file
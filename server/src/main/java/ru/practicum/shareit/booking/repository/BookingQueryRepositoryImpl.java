@@ -0,0 +1,105 @@
+package ru.practicum.shareit.booking.repository;
+
+import io.micrometer.core.instrument.Metrics;
+import ru.practicum.shareit.booking.enumeration.BookingRole;
+import ru.practicum.shareit.booking.enumeration.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.pagination.BookingCounts;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Один запрос на все состояния: состояние задает только значения параметров, поэтому у Postgres
+// по одному подготовленному выражению на роль, а время каждой выборки видно в метриках
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+    // Курсор первой страницы: раньше него все бронирования
+    private static final BookingCursor FIRST_PAGE = new BookingCursor(BookingFilter.MAX, Long.MAX_VALUE);
+
+    // В форме start <= X AND (...) Postgres берет диапазон по индексу (start, id), OR-форма этого не дает
+    private static final String SEEK = "b.start <= :cursorStart AND (b.start < :cursorStart OR b.id < :cursorId)";
+    private static final Map<BookingRole, String> FIND = new EnumMap<>(Map.of(
+            BookingRole.BOOKER, find(BookingRole.BOOKER),
+            BookingRole.OWNER, find(BookingRole.OWNER)));
+    private static final Map<BookingRole, String> COUNT = new EnumMap<>(Map.of(
+            BookingRole.BOOKER, count(BookingRole.BOOKER),
+            BookingRole.OWNER, count(BookingRole.OWNER)));
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Booking> findBookings(BookingQuery query) {
+        TypedQuery<Booking> jpql = em.createQuery(FIND.get(query.getRole()), Booking.class)
+                .setHint(FETCH_GRAPH, em.getEntityGraph("Booking"))
+                .setParameter("userId", query.getUserId());
+        bind(jpql, "", query.getState().filter(query.getNow()));
+        BookingCursor cursor = query.getCursor() != null ? query.getCursor() : FIRST_PAGE;
+        jpql.setParameter("cursorStart", cursor.getStart())
+                .setParameter("cursorId", cursor.getId())
+                .setFirstResult(Math.toIntExact(query.getOffset()))
+                .setMaxResults(query.getLimit());
+        return Metrics.timer("shareit.booking.query",
+                        "role", query.getRole().name(), "state", query.getState().name())
+                .record(jpql::getResultList);
+    }
+
+    @Override
+    public BookingCounts countBookings(BookingRole role, Long userId, LocalDateTime now) {
+        Query jpql = em.createQuery(COUNT.get(role)).setParameter("userId", userId);
+        for (BookingState state : BookingState.values()) {
+            bind(jpql, prefix(state), state.filter(now));
+        }
+        Object[] row = Metrics.timer("shareit.booking.query", "role", role.name(), "state", "COUNT")
+                .record(() -> (Object[]) jpql.getSingleResult());
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        for (BookingState state : BookingState.values()) {
+            counts.put(state, (Long) row[state.ordinal()]);
+        }
+        return new BookingCounts(counts);
+    }
+
+    private static String find(BookingRole role) {
+        return "SELECT b FROM Booking b WHERE " + owned(role) + " AND " + predicate("") + " AND " + SEEK +
+                " ORDER BY b.start DESC, b.id DESC";
+    }
+
+    // Колонки идут в порядке BookingState; SUM по пустой выборке дает null
+    private static String count(BookingRole role) {
+        return Stream.of(BookingState.values())
+                .map(state -> "SUM(CASE WHEN " + predicate(prefix(state)) + " THEN 1 ELSE 0 END)")
+                .collect(Collectors.joining(", ", "SELECT ", " FROM Booking b WHERE " + owned(role)));
+    }
+
+    private static String owned(BookingRole role) {
+        return role == BookingRole.OWNER ? "b.ownerId = :userId" : "b.booker.id = :userId";
+    }
+
+    private static String predicate(String prefix) {
+        return "b.start > :" + prefix + "startAfter AND b.start <= :" + prefix + "startUntil" +
+                " AND b.end > :" + prefix + "endAfter AND b.end < :" + prefix + "endBefore" +
+                " AND b.status IN (:" + prefix + "statuses)";
+    }
+
+    private static String prefix(BookingState state) {
+        return state.name().toLowerCase() + "_";
+    }
+
+    private static void bind(Query jpql, String prefix, BookingFilter filter) {
+        jpql.setParameter(prefix + "startAfter", filter.getStartAfter())
+                .setParameter(prefix + "startUntil", filter.getStartUntil())
+                .setParameter(prefix + "endAfter", filter.getEndAfter())
+                .setParameter(prefix + "endBefore", filter.getEndBefore())
+                .setParameter(prefix + "statuses", filter.paddedStatuses());
+    }
+}
\ No newline at end of file
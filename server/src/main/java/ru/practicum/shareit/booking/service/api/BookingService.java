@@ -16,4 +16,16 @@ public interface BookingService {
     List<BookingResponseDto> getBookingsByBookerId(Long bookerId, String state, Integer from, Integer size);
 
     List<BookingResponseDto> getBookingsByOwnerId(Long ownerId, String state, Integer from, Integer size);
+
+    // Keyset-пагинация: страница бронирований строго после курсора
+    List<BookingResponseDto> getBookingsByBookerIdAfter(Long bookerId, String state, String cursor, Integer size);
+
+    List<BookingResponseDto> getBookingsByOwnerIdAfter(Long ownerId, String state, String cursor, Integer size);
+
+    // Total для списков по запросу клиента: может отставать от данных, но не требует COUNT на каждую страницу
+    long getApproximateTotalByBookerId(Long bookerId, String state);
+
+    long getApproximateTotalByOwnerId(Long ownerId, String state);
+
+    List<Long> getBookingIds(Long afterId, Integer size);
 }
@@ -1,24 +1,32 @@
 package ru.practicum.shareit.booking.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enumeration.BookingRole;
 import ru.practicum.shareit.booking.enumeration.BookingState;
 import ru.practicum.shareit.booking.enumeration.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
+import ru.practicum.shareit.booking.pagination.BookingTotals;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.api.BookingService;
 import ru.practicum.shareit.exception.CustomBadRequestException;
 import ru.practicum.shareit.exception.CustomEntityNotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
 import ru.practicum.shareit.item.repository.api.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.api.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 
@@ -29,8 +37,13 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingTotals bookingTotals;
+    private final ItemBookingPointers itemBookingPointers;
 
+    // Бронь и указатели вещи на последнее/следующее бронирование меняются в одной транзакции
     @Override
+    @Transactional
     public BookingResponseDto saveBooking(Long bookerId, BookingRequestDto requestDto) {
         User booker = userRepository.findById(bookerId)
                 .orElseThrow((() -> new CustomEntityNotFoundException("User not exists")));
@@ -44,10 +57,13 @@ public class BookingServiceImpl implements BookingService {
         }
         Booking bookingAfterMap = BookingMapper.INSTANCE.toBooking(requestDto, item, booker);
         Booking savedBooking = bookingRepository.save(bookingAfterMap);
+        itemBookingPointers.refresh(item.getId(), LocalDateTime.now());
+        publishEvent(savedBooking);
         return BookingMapper.INSTANCE.toBookingResponseDto(savedBooking);
     }
 
     @Override
+    @Transactional
     public BookingResponseDto updateBooking(Long ownerId, Long bookingId, Boolean approveStatus) {
         Booking booking = bookingRepository.findBookingByIdWithItemAndBookerEagerly(bookingId);
         if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
@@ -60,6 +76,8 @@ public class BookingServiceImpl implements BookingService {
             throw new CustomBadRequestException("Status cannot be changed if status is not WAITING");
         }
         Booking savedBooking = bookingRepository.save(booking);
+        itemBookingPointers.refresh(booking.getItem().getId(), LocalDateTime.now());
+        publishEvent(savedBooking);
         return BookingMapper.INSTANCE.toBookingResponseDto(savedBooking);
     }
 
@@ -83,73 +101,71 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingResponseDto> getBookingsByBookerId(Long bookerId, String state, Integer from, Integer size) {
         userRepository.findById(bookerId).orElseThrow(() -> new CustomEntityNotFoundException("Booker not exist"));
-        BookingState fromState = null;
-        boolean isStateValid = true;
-        try {
-            fromState = BookingState.valueOf(state);
-        } catch (RuntimeException e) {
-            isStateValid = false;
-        }
-        if (isStateValid) {
-            Pageable pageable = PageRequest.of(from / size, size);
-            switch (fromState) {
-                case ALL:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findAllByGivenUserId(bookerId, pageable).getContent());
-                case CURRENT:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findCurrentBookingsByBookerId(bookerId, pageable).getContent());
-                case PAST:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findPastBookingsByBookerId(bookerId, pageable).getContent());
-                case FUTURE:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findFutureBookingsByBookerId(bookerId, pageable).getContent());
-                case WAITING:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findWaitingBookingsByBookerId(bookerId, pageable).getContent());
-                case REJECTED:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findRejectedBookingsByBookerId(bookerId, pageable).getContent());
-            }
-        }
-        throw new IllegalStateException("Unknown state: " + state);
+        return findBookings(BookingRole.BOOKER, bookerId, state, null, from, size);
     }
 
     @Override
     public List<BookingResponseDto> getBookingsByOwnerId(Long ownerId, String state, Integer from, Integer size) {
         userRepository.findById(ownerId).orElseThrow(() -> new CustomEntityNotFoundException("Owner not exists"));
-        BookingState fromState = null;
-        boolean isStateValid = true;
+        return findBookings(BookingRole.OWNER, ownerId, state, null, from, size);
+    }
+
+    @Override
+    public List<BookingResponseDto> getBookingsByBookerIdAfter(Long bookerId, String state, String cursor, Integer size) {
+        userRepository.findById(bookerId).orElseThrow(() -> new CustomEntityNotFoundException("Booker not exist"));
+        return findBookings(BookingRole.BOOKER, bookerId, state, BookingCursor.decode(cursor), 0, size);
+    }
+
+    @Override
+    public List<BookingResponseDto> getBookingsByOwnerIdAfter(Long ownerId, String state, String cursor, Integer size) {
+        userRepository.findById(ownerId).orElseThrow(() -> new CustomEntityNotFoundException("Owner not exists"));
+        return findBookings(BookingRole.OWNER, ownerId, state, BookingCursor.decode(cursor), 0, size);
+    }
+
+    @Override
+    public long getApproximateTotalByBookerId(Long bookerId, String state) {
+        return bookingTotals.forBooker(bookerId).get(toState(state));
+    }
+
+    @Override
+    public long getApproximateTotalByOwnerId(Long ownerId, String state) {
+        return bookingTotals.forOwner(ownerId).get(toState(state));
+    }
+
+    @Override
+    public List<Long> getBookingIds(Long afterId, Integer size) {
+        return bookingRepository.findIdsAfter(afterId, PageRequest.of(0, size));
+    }
+
+    private List<BookingResponseDto> findBookings(BookingRole role, Long userId, String state,
+                                                  BookingCursor cursor, long offset, int size) {
+        BookingQuery query = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(toState(state))
+                .now(LocalDateTime.now())
+                .cursor(cursor)
+                .offset(offset)
+                .limit(size)
+                .build();
+        return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository.findBookings(query));
+    }
+
+    private BookingState toState(String state) {
         try {
-            fromState = BookingState.valueOf(state);
+            return BookingState.valueOf(state);
         } catch (RuntimeException e) {
-            isStateValid = false;
+            throw new IllegalStateException("Unknown state: " + state);
         }
-        if (isStateValid) {
-            Pageable pageable = PageRequest.of(from / size, size);
-            switch (fromState) {
-                case ALL:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findAllBookingsByOwnerId(ownerId, pageable).getContent());
-                case CURRENT:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findCurrentBookingsByOwnerId(ownerId, pageable).getContent());
-                case PAST:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findPastBookingsByOwnerId(ownerId, pageable).getContent());
-                case FUTURE:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findFutureBookingsByOwnerId(ownerId, pageable).getContent());
-                case WAITING:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findWaitingBookingsByOwnerId(ownerId, pageable).getContent());
-                case REJECTED:
-                    return BookingMapper.INSTANCE.toBookingResponseDtoList(bookingRepository
-                            .findRejectedBookingsByOwnerId(ownerId, pageable).getContent());
-            }
+    }
 
-        }
-        throw new IllegalStateException("Unknown state: " + state);
+    private void publishEvent(Booking booking) {
+        eventPublisher.publishEvent(BookingEventDto.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .status(booking.getStatus())
+                .build());
     }
 }
\ No newline at end of file
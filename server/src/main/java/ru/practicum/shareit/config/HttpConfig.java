@@ -0,0 +1,37 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import ru.practicum.shareit.idempotency.filter.IdempotencyFilter;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
+
+@Configuration
+public class HttpConfig {
+
+    // ETag считается по уже сериализованному телу ответа, повторной сериализации нет.
+    // На совпавший If-None-Match фильтр отвечает 304 без тела. ETag слабый: ответы со strong ETag
+    // Tomcat не сжимает, а сжатое тело побайтно отличается от исходного
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/items/*", "/bookings/*", "/requests/*");
+        return registration;
+    }
+
+    // Раньше остальных фильтров, чтобы повтор получил ровно тот ответ, что ушел клиенту в первый раз
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyService idempotencyService,
+                                                                       ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyService, objectMapper));
+        registration.addUrlPatterns("/bookings", "/items", "/requests");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+// Каждый запрос вместе с его JDBC-вызовами выполняется на своем виртуальном потоке.
+// Одновременных обращений к базе по-прежнему не больше размера пула Hikari, остальные ждут соединения
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    private final Optional<ExecutorService> requestExecutor;
+
+    public VirtualThreadConfig(@Value("${shareit.threads.trace-pinning:short}") String tracePinning) {
+        this.requestExecutor = VirtualThreads.newPerTaskExecutor("server-request-", tracePinning);
+        requestExecutor.ifPresent(executor -> log.info("Server requests run on virtual threads"));
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadRequestExecutor() {
+        return factory -> requestExecutor.ifPresent(executor -> factory.addConnectorCustomizers(connector ->
+                connector.getProtocolHandler().setExecutor(executor)));
+    }
+
+    // Внешний executor Tomcat не останавливает
+    @PreDestroy
+    public void stop() {
+        requestExecutor.ifPresent(ExecutorService::shutdownNow);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.idempotency.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.shareit.exception.ResponseErrorDto;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.Set;
+
+// Повтор POST с тем же Idempotency-Key не создает вторую сущность, а получает сохраненный первый ответ.
+// Повтор, пришедший пока первый запрос еще выполняется, дожидается его
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final Set<String> PATHS = Set.of("/bookings", "/items", "/requests");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))
+                || request.getHeader(IDEMPOTENCY_KEY) == null
+                || request.getHeader(USER_ID) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY);
+        Long userId;
+        try {
+            userId = Long.valueOf(request.getHeader(USER_ID));
+        } catch (NumberFormatException e) {
+            // Некорректный id отклонит сам контроллер, ключ тут ни при чем
+            chain.doFilter(request, response);
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters long");
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String requestHash = sha256(body);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (idempotencyService.tryStart(userId, key, requestHash)) {
+                execute(new CachedBodyRequest(request, body), response, chain, userId, key);
+                return;
+            }
+            Optional<IdempotencyRecord> record;
+            try {
+                record = idempotencyService.awaitCompletion(userId, key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeError(response, HttpStatus.CONFLICT, "Request with this " + IDEMPOTENCY_KEY + " is in progress");
+                return;
+            }
+            if (record.isEmpty()) {
+                // Первый запрос завершился ошибкой и освободил ключ
+                continue;
+            }
+            if (!record.get().getRequestHash().equals(requestHash)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY + " was already used with a different request body");
+                return;
+            }
+            if (!record.get().isCompleted()) {
+                break;
+            }
+            replay(response, record.get());
+            return;
+        }
+        writeError(response, HttpStatus.CONFLICT, "Request with this " + IDEMPOTENCY_KEY + " is in progress");
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         Long userId, String key) throws ServletException, IOException {
+        ContentCachingResponseWrapper cached = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, cached);
+            // 4xx детерминированы и сохраняются, после 5xx клиент вправе повторить с тем же ключом
+            if (cached.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                idempotencyService.complete(userId, key, cached.getStatus(), cached.getContentType(),
+                        cached.getContentAsByteArray());
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.abandon(userId, key);
+            }
+            cached.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyRecord record) throws IOException {
+        log.debug("Replaying response for {} {} of user {}", IDEMPOTENCY_KEY, record.getIdempotencyKey(),
+                record.getUserId());
+        response.setStatus(record.getResponseStatus());
+        response.setHeader(REPLAYED, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        byte[] body = record.getResponseBody();
+        if (body != null && body.length > 0) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ResponseErrorDto(status.getReasonPhrase(), message));
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.idempotency.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    // Вставка без чтения: при уже существующем ключе падает на первичном ключе, так запрос занимают атомарно
+    @Modifying
+    @Transactional
+    @Query(value = "insert into idempotency_keys (user_id, idempotency_key, request_hash, created, locked_until) " +
+            "values (:userId, :key, :requestHash, :created, :lockedUntil)", nativeQuery = true)
+    void insertInProgress(@Param("userId") Long userId,
+                          @Param("key") String key,
+                          @Param("requestHash") String requestHash,
+                          @Param("created") LocalDateTime created,
+                          @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.responseStatus = :status, r.contentType = :contentType, " +
+            "r.responseBody = :body where r.userId = :userId and r.idempotencyKey = :key")
+    void complete(@Param("userId") Long userId,
+                  @Param("key") String key,
+                  @Param("status") Integer status,
+                  @Param("contentType") String contentType,
+                  @Param("body") byte[] body);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.userId = :userId and r.idempotencyKey = :key")
+    void deleteByKey(@Param("userId") Long userId, @Param("key") String key);
+
+    // Удаляет запись, только если ее можно занять заново: она старше ttl либо запрос не завершен и аренда
+    // истекла. Условие проверяется в самом delete, поэтому запись, которую уже занял другой повтор, не удалится
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.userId = :userId and r.idempotencyKey = :key " +
+            "and (r.created < :expiredBefore or (r.responseStatus is null and (r.lockedUntil < :now " +
+            "or (r.lockedUntil is null and r.created < :leaseExpiredBefore))))")
+    int deleteReclaimable(@Param("userId") Long userId,
+                          @Param("key") String key,
+                          @Param("now") LocalDateTime now,
+                          @Param("expiredBefore") LocalDateTime expiredBefore,
+                          @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.created < :created")
+    int deleteCreatedBefore(@Param("created") LocalDateTime created);
+}
\ No newline at end of file
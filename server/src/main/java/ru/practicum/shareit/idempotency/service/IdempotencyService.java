@@ -0,0 +1,154 @@
+package ru.practicum.shareit.idempotency.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Хранилище ключей идемпотентности. Сам ключ занимается вставкой в общую таблицу, поэтому дубликат,
+// пришедший на другую реплику, тоже его увидит
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyRepository repository;
+    private final Duration ttl;
+    // Должна быть больше времени самого долгого запроса: по истечении аренды повтор выполнит запрос заново
+    private final Duration lease;
+    private final Duration waitTimeout;
+    private final Duration purgeInterval;
+    // Запросы, которые выполняет эта реплика: дубликаты ждут их без опроса базы
+    private final Map<IdempotencyRecord.Key, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private ScheduledExecutorService purger;
+
+    public IdempotencyService(IdempotencyRepository repository,
+                              @Value("${shareit.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${shareit.idempotency.lease:1m}") Duration lease,
+                              @Value("${shareit.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${shareit.idempotency.purge-interval:10m}") Duration purgeInterval) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.purgeInterval = purgeInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired,
+                purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        purger.shutdownNow();
+    }
+
+    // true - ключ занят этим вызовом и запрос нужно выполнить, false - его уже выполняет или выполнил другой
+    public boolean tryStart(Long userId, String key, String requestHash) {
+        try {
+            insert(userId, key, requestHash);
+        } catch (DataIntegrityViolationException e) {
+            // Запись устарела или ее владелец не уложился в аренду - занимаем ключ заново. Если запись успел
+            // занять другой повтор или ее только что удалили, delete ничего не найдет, и вызов повторит фильтр
+            LocalDateTime now = LocalDateTime.now();
+            if (repository.deleteReclaimable(userId, key, now, now.minus(ttl), now.minus(lease)) == 0) {
+                return false;
+            }
+            log.warn("Idempotency key {} of user {} was taken over after its lease expired", key, userId);
+            try {
+                insert(userId, key, requestHash);
+            } catch (DataIntegrityViolationException again) {
+                return false;
+            }
+        }
+        inFlight.put(new IdempotencyRecord.Key(userId, key), new CompletableFuture<>());
+        return true;
+    }
+
+    public void complete(Long userId, String key, int status, String contentType, byte[] body) {
+        try {
+            repository.complete(userId, key, status, contentType, body);
+        } finally {
+            release(new IdempotencyRecord.Key(userId, key));
+        }
+    }
+
+    // Запрос не удался так, что повтор может пройти: ключ освобождается
+    public void abandon(Long userId, String key) {
+        try {
+            repository.deleteByKey(userId, key);
+        } finally {
+            release(new IdempotencyRecord.Key(userId, key));
+        }
+    }
+
+    // Ждет, пока первый запрос завершится. Пустой результат - ключ освобожден и его можно занять снова,
+    // незавершенная запись - не дождались
+    public Optional<IdempotencyRecord> awaitCompletion(Long userId, String key) throws InterruptedException {
+        IdempotencyRecord.Key id = new IdempotencyRecord.Key(userId, key);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            CompletableFuture<Void> local = inFlight.get(id);
+            if (local != null) {
+                try {
+                    local.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    log.debug("Idempotent request {} of user {} is still in progress", key, userId);
+                }
+            }
+            Optional<IdempotencyRecord> record = repository.findById(id);
+            if (record.isEmpty() || record.get().isCompleted() || System.nanoTime() >= deadline) {
+                return record;
+            }
+            // Первый запрос выполняет другая реплика
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    public void purgeExpired() {
+        try {
+            int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+            if (purged > 0) {
+                log.info("Purged {} expired idempotency keys", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private void insert(Long userId, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.insertInProgress(userId, key, requestHash, now, now.plus(lease));
+    }
+
+    private void release(IdempotencyRecord.Key id) {
+        CompletableFuture<Void> local = inFlight.remove(id);
+        if (local != null) {
+            local.complete(null);
+        }
+    }
+}
\ No newline at end of file
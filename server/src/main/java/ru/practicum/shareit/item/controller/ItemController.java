@@ -63,4 +63,11 @@ public class ItemController {
                                   @RequestBody CommentDto commentDto) {
         return service.saveComment(itemId, userId, commentDto);
     }
+
+    @GetMapping("/ids")
+    public List<Long> getItemIds(@RequestParam(name = "after", defaultValue = "0") Long afterId,
+                                 @RequestParam(name = "size", defaultValue = "10000") Integer size) {
+        log.debug("GET request received to get item ids after id={}", afterId);
+        return service.getItemIds(afterId, size);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "item_booking_pointers")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingPointer {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    // Для списка вещей владельца: последнее завершившееся и ближайшее будущее бронирование
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    // Для карточки вещи: то же без отклоненных, последним считается уже начавшееся
+    @Column(name = "past_booking_id")
+    private Long pastBookingId;
+
+    @Column(name = "past_booker_id")
+    private Long pastBookerId;
+
+    @Column(name = "future_booking_id")
+    private Long futureBookingId;
+
+    @Column(name = "future_booker_id")
+    private Long futureBookerId;
+
+    // Момент, когда указатели устареют сами по себе: ближайшее начало или конец бронирования вещи
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.pointer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.api.ItemBookingPointerRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Сдвигает указатели вещей, у которых с ходом времени бронирование началось или закончилось.
+// Задача идет на каждой реплике: вещь пересчитывает тот проход, что первым взял блокировку ее строки,
+// остальные ее пропускают. Первый проход - сразу при старте, он же заполняет указатели, созданные миграцией V5
+@Slf4j
+@Component
+public class ItemBookingPointerJob {
+
+    private final ItemBookingPointers pointers;
+    private final ItemBookingPointerRepository repository;
+    private final Duration refreshInterval;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    public ItemBookingPointerJob(ItemBookingPointers pointers,
+                                 ItemBookingPointerRepository repository,
+                                 @Value("${shareit.item-booking-pointers.refresh-interval:1m}") Duration refreshInterval,
+                                 @Value("${shareit.item-booking-pointers.batch-size:500}") int batchSize) {
+        this.pointers = pointers;
+        this.repository = repository;
+        this.refreshInterval = refreshInterval;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-booking-pointers");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshExpired,
+                0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // После пересчета valid_until уходит в будущее, поэтому цикл заканчивается на первой неполной пачке
+    public void refreshExpired() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int refreshed = 0;
+            List<Long> itemIds;
+            do {
+                itemIds = repository.findExpiredItemIds(now, PageRequest.of(0, batchSize));
+                for (Long itemId : itemIds) {
+                    if (pointers.refreshIfExpired(itemId, now)) {
+                        refreshed++;
+                    }
+                }
+            } while (itemIds.size() == batchSize);
+            if (refreshed > 0) {
+                log.info("Refreshed booking pointers of {} items", refreshed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh item booking pointers: {}", e.getMessage());
+        }
+    }
+}
\ No newline at end of file
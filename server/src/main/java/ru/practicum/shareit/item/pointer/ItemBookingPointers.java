@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.pointer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.repository.api.ItemBookingPointerRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Указатели на последнее и следующее бронирование вещей: пишутся в одной транзакции с бронированием,
+// по ходу времени их сдвигает ItemBookingPointerJob, а чтение вещей обходится без запросов к bookings
+@Component
+@RequiredArgsConstructor
+public class ItemBookingPointers {
+
+    private static final Pageable FIRST = PageRequest.of(0, 1);
+    // У вещи нет предстоящих начал и концов бронирований - указатели не устареют до следующей записи
+    private static final LocalDateTime NEVER = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final ItemBookingPointerRepository pointerRepository;
+    private final BookingRepository bookingRepository;
+
+    @Transactional
+    public ItemBookingPointer refresh(Long itemId, LocalDateTime now) {
+        ItemBookingPointer pointer = pointerRepository.findForUpdate(itemId)
+                .orElseGet(() -> ItemBookingPointer.builder().itemId(itemId).build());
+        Booking last = first(bookingRepository.findLastBookingsByItemId(itemId, now, FIRST));
+        Booking next = first(bookingRepository.findNextBookingsByItemId(itemId, now, FIRST));
+        Booking past = first(bookingRepository.findPastBookingsByItemId(itemId, now, FIRST));
+        Booking future = first(bookingRepository.findFutureBookingsByItemId(itemId, now, FIRST));
+        pointer.setLastBookingId(last != null ? last.getId() : null);
+        pointer.setLastBookerId(last != null ? last.getBooker().getId() : null);
+        pointer.setNextBookingId(next != null ? next.getId() : null);
+        pointer.setNextBookerId(next != null ? next.getBooker().getId() : null);
+        pointer.setPastBookingId(past != null ? past.getId() : null);
+        pointer.setPastBookerId(past != null ? past.getBooker().getId() : null);
+        pointer.setFutureBookingId(future != null ? future.getId() : null);
+        pointer.setFutureBookerId(future != null ? future.getBooker().getId() : null);
+        LocalDateTime nextChange = bookingRepository.findNextChangeByItemId(itemId, now);
+        pointer.setValidUntil(nextChange != null ? nextChange : NEVER);
+        return pointerRepository.save(pointer);
+    }
+
+    // Просроченные указатели отдаются как есть: их сдвигает ItemBookingPointerJob не позже чем через
+    // refresh-interval, а чтение вещей не пишет в базу и не ждет блокировок
+    @Transactional(readOnly = true)
+    public Map<Long, ItemBookingPointer> current(Collection<Long> itemIds) {
+        Map<Long, ItemBookingPointer> pointers = new HashMap<>();
+        for (ItemBookingPointer pointer : pointerRepository.findAllById(itemIds)) {
+            pointers.put(pointer.getItemId(), pointer);
+        }
+        // Указатель появляется вместе с вещью, отсутствует он только у вещи, чье создание еще не закоммичено
+        for (Long itemId : itemIds) {
+            pointers.computeIfAbsent(itemId, id -> ItemBookingPointer.builder().itemId(id).build());
+        }
+        return pointers;
+    }
+
+    // Пересчитывает указатель, только если он все еще просрочен. Проход на другой реплике, взявший ту же вещь,
+    // дожидается блокировки строки, видит уже сдвинутый valid_until и пропускает вещь
+    @Transactional
+    public boolean refreshIfExpired(Long itemId, LocalDateTime now) {
+        Optional<ItemBookingPointer> pointer = pointerRepository.findForUpdate(itemId);
+        if (pointer.isEmpty() || pointer.get().getValidUntil().isAfter(now)) {
+            return false;
+        }
+        refresh(itemId, now);
+        return true;
+    }
+
+    private static Booking first(List<Booking> bookings) {
+        return bookings.isEmpty() ? null : bookings.get(0);
+    }
+}
\ No newline at end of file
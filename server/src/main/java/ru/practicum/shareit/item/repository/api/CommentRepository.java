@@ -1,12 +1,16 @@
 package ru.practicum.shareit.item.repository.api;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // Явные запросы: производные по item.id и author.id соединяются с items и users
+    @Query("select c from Comment c where c.item.id = ?1")
     List<Comment> findByItemId(Long itemId);
 
+    @Query("select c from Comment c where c.author.id = ?1")
     List<Comment> findByAuthorId(Long id);
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.repository.api;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingPointerRepository extends JpaRepository<ItemBookingPointer, Long> {
+
+    // Блокировка строки вещи: параллельные пересчеты одной вещи идут по очереди и видят брони друг друга
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ItemBookingPointer p WHERE p.itemId = :itemId")
+    Optional<ItemBookingPointer> findForUpdate(@Param("itemId") Long itemId);
+
+    @Query("SELECT p.itemId FROM ItemBookingPointer p WHERE p.validUntil <= :now ORDER BY p.validUntil")
+    List<Long> findExpiredItemIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.repository.api;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
@@ -7,6 +8,8 @@ import ru.practicum.shareit.item.model.Item;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    // Явный запрос: производный по owner.id соединяется с users и не идет по индексу owner_id
+    @Query("select i from Item i where i.owner.id = ?1")
     List<Item> getItemsByOwnerId(Long id);
 
     @Query("select i from Item i " +
@@ -15,4 +18,7 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> search(String text);
 
     List<Item> findByRequestId(Long requestId);
+
+    @Query("select i.id from Item i where i.id > ?1 order by i.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
 }
\ No newline at end of file
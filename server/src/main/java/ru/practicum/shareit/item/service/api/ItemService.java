@@ -17,4 +17,6 @@ public interface ItemService {
     List<ItemDto> searchByText(String text);
 
     CommentDto saveComment(Long itemId, Long userId, CommentDto commentDto);
+
+    List<Long> getItemIds(Long afterId, Integer size);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -14,6 +15,8 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
 import ru.practicum.shareit.item.repository.api.CommentRepository;
 import ru.practicum.shareit.item.repository.api.ItemRepository;
 import ru.practicum.shareit.item.service.api.ItemService;
@@ -33,6 +36,7 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemBookingPointers itemBookingPointers;
 
     @Override
     public ItemDto saveItem(Long id, ItemDto itemDto) {
@@ -46,6 +50,7 @@ public class ItemServiceImpl implements ItemService {
             item.setRequestId(requestId);
         }
         item = itemRepository.save(item);
+        itemBookingPointers.refresh(item.getId(), LocalDateTime.now());
         return ItemMapper.INSTANCE.toItemDto(item);
     }
 
@@ -87,34 +92,26 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemDto> getAllItems(Long id) {
         List<Item> items = itemRepository.getItemsByOwnerId(id);
-        List<Booking> lastBookings = bookingRepository.findLastBookingsForOwnerItems(id);
-        List<Booking> nextBookings = bookingRepository.findNextBookingsForOwnerItems(id);
         if (id != null) {
-            Map<Long, BookingItemDto> lastBookingsMap = lastBookings.stream()
-                    .collect(Collectors.toMap(
-                            booking -> booking.getItem().getId(),
-                            this::toBookingItemDto,
-                            (existing, replacement) -> existing
-                    ));
-            Map<Long, BookingItemDto> nextBookingsMap = nextBookings.stream()
-                    .collect(Collectors.toMap(
-                            booking -> booking.getItem().getId(),
-                            this::toBookingItemDto,
-                            (existing, replacement) -> existing
-                    ));
+            Map<Long, ItemBookingPointer> pointers = itemBookingPointers.current(items.stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList()));
             List<CommentDto> comments = commentRepository.findByAuthorId(id).stream()
                     .map(CommentMapper.INSTANCE::toCommentDto)
                     .collect(Collectors.toList());
             return items.stream()
-                    .map(item -> ItemDto.builder()
-                            .id(item.getId())
-                            .name(item.getName())
-                            .description(item.getDescription())
-                            .available(item.getAvailable())
-                            .lastBooking(lastBookingsMap.get(item.getId()))
-                            .nextBooking(nextBookingsMap.get(item.getId()))
-                            .comments(comments)
-                            .build())
+                    .map(item -> {
+                        ItemBookingPointer pointer = pointers.get(item.getId());
+                        return ItemDto.builder()
+                                .id(item.getId())
+                                .name(item.getName())
+                                .description(item.getDescription())
+                                .available(item.getAvailable())
+                                .lastBooking(toBookingItemDto(pointer.getLastBookingId(), pointer.getLastBookerId()))
+                                .nextBooking(toBookingItemDto(pointer.getNextBookingId(), pointer.getNextBookerId()))
+                                .comments(comments)
+                                .build();
+                    })
                     .sorted(Comparator.comparing(ItemDto::getId))
                     .collect(Collectors.toList());
         }
@@ -147,37 +144,25 @@ public class ItemServiceImpl implements ItemService {
         return CommentMapper.INSTANCE.toCommentDto(savedComment);
     }
 
+    @Override
+    public List<Long> getItemIds(Long afterId, Integer size) {
+        return itemRepository.findIdsAfter(afterId, PageRequest.of(0, size));
+    }
+
     private ItemDto getItemWithBookings(Long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new CustomEntityNotFoundException("Item not found"));
-        BookingItemDto lastBookingDto = findPastBookingsByItemId(itemId);
-        BookingItemDto nextBookingDto = findFutureBookingsByItemId(itemId);
+        ItemBookingPointer pointer = itemBookingPointers.current(List.of(itemId)).get(itemId);
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .lastBooking(lastBookingDto)
-                .nextBooking(nextBookingDto)
+                .lastBooking(toBookingItemDto(pointer.getPastBookingId(), pointer.getPastBookerId()))
+                .nextBooking(toBookingItemDto(pointer.getFutureBookingId(), pointer.getFutureBookerId()))
                 .build();
     }
 
-    private BookingItemDto findFutureBookingsByItemId(Long itemId) {
-        return bookingRepository.findFutureBookingsByItemId(itemId)
-                .stream()
-                .map(this::toBookingItemDto)
-                .findFirst()
-                .orElse(null);
-    }
-
-    private BookingItemDto findPastBookingsByItemId(Long itemId) {
-        return bookingRepository.findPastBookingsByItemId(itemId)
-                .stream()
-                .map(this::toBookingItemDto)
-                .findFirst()
-                .orElse(null);
-    }
-
-    private BookingItemDto toBookingItemDto(Booking booking) {
-        return new BookingItemDto(booking.getId(), booking.getBooker().getId());
+    private BookingItemDto toBookingItemDto(Long bookingId, Long bookerId) {
+        return bookingId != null ? new BookingItemDto(bookingId, bookerId) : null;
     }
 }
\ No newline at end of file
@@ -11,7 +11,9 @@ import java.util.List;
 
 public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findItemRequestsByRequestorId(Long requestorId);
+    // Производный запрос соединялся с users через LEFT JOIN и читал всю таблицу requests
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id = :requestorId")
+    List<ItemRequest> findItemRequestsByRequestorId(@Param("requestorId") Long requestorId);
 
     @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> :requestorId")
     Page<ItemRequest> findItemRequestsByRequestorId(@Param("requestorId") Long requestorId, Pageable pageable);
@@ -45,4 +45,11 @@ public class UserController {
         log.debug("GET request received to get all users");
         return service.getAllUsers();
     }
+
+    @GetMapping("/ids")
+    public List<Long> getUserIds(@RequestParam(name = "after", defaultValue = "0") Long afterId,
+                                 @RequestParam(name = "size", defaultValue = "10000") Integer size) {
+        log.debug("GET request received to get user ids after id={}", afterId);
+        return service.getUserIds(afterId, size);
+    }
 }
\ No newline at end of file
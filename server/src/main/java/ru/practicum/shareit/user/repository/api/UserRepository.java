@@ -1,8 +1,15 @@
 package ru.practicum.shareit.user.repository.api;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Id пользователей по возрастанию, начиная после afterId - для фильтра несуществующих id в gateway
+    @Query("select u.id from User u where u.id > ?1 order by u.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -14,4 +14,6 @@ public interface UserService {
     void deleteUserById(Long id);
 
     List<UserDto> getAllUsers();
+
+    List<Long> getUserIds(Long afterId, Integer size);
 }
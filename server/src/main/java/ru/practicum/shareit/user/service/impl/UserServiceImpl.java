@@ -2,6 +2,7 @@ package ru.practicum.shareit.user.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.CustomEntityNotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -54,4 +55,9 @@ public class UserServiceImpl implements UserService {
                 .map(UserMapper.INSTANCE::toUserDto)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<Long> getUserIds(Long afterId, Integer size) {
+        return repository.findIdsAfter(afterId, PageRequest.of(0, size));
+    }
 }
\ No newline at end of file
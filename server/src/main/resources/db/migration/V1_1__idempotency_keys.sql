@@ -0,0 +1,13 @@
+-- Ключи идемпотентности (POST /bookings, /items, /requests). Отдельной миграцией: базе, принятой
+-- за baseline версии 1, V1 не применяется, а индекс из V2 уже ссылается на эту таблицу
+CREATE TABLE IF NOT EXISTS idempotency_keys
+(
+    user_id         BIGINT                      NOT NULL,
+    idempotency_key VARCHAR(255)                NOT NULL,
+    request_hash    VARCHAR(64)                 NOT NULL,
+    response_status INTEGER,
+    content_type    VARCHAR(255),
+    response_body   BYTEA,
+    created         TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (user_id, idempotency_key)
+);
\ No newline at end of file
@@ -0,0 +1,21 @@
+-- Списки бронирований букера: WHERE booker_id = ? ORDER BY start_date DESC, id DESC (и keyset по тем же колонкам)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+-- Списки владельца идут через items.owner_id, затем по item_id в том же порядке
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
+-- Последнее бронирование вещи и проверка права на комментарий: item_id + end_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id, created);
+
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor ON requests (requestor_id, created DESC);
+
+-- Очистка просроченных ключей идемпотентности
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created ON idempotency_keys (created);
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Последнее бронирование вещи выбирается по (end_date DESC, id DESC), id в индексе убирает досортировку
+DROP INDEX IF EXISTS idx_bookings_item_end;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date DESC, id DESC);
\ No newline at end of file
@@ -0,0 +1,26 @@
+-- Предвычисленные последнее/следующее бронирование вещи. Пересчитываются при записи бронирования
+-- и фоновой задачей, когда наступает valid_until - ближайшее начало или конец бронирования вещи.
+-- last/next - для списка вещей владельца, past/future - для карточки вещи (без отклоненных)
+CREATE TABLE IF NOT EXISTS item_booking_pointers
+(
+    item_id           BIGINT                      NOT NULL,
+    last_booking_id   BIGINT,
+    last_booker_id    BIGINT,
+    next_booking_id   BIGINT,
+    next_booker_id    BIGINT,
+    past_booking_id   BIGINT,
+    past_booker_id    BIGINT,
+    future_booking_id BIGINT,
+    future_booker_id  BIGINT,
+    valid_until       TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_item_booking_pointers PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_booking_pointers_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_pointers_valid_until ON item_booking_pointers (valid_until);
+
+-- Существующие вещи сразу просрочены: их заполнит первый проход фоновой задачи или первое чтение
+INSERT INTO item_booking_pointers (item_id, valid_until)
+SELECT i.id, TIMESTAMP '0001-01-01 00:00:00'
+FROM items i
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_pointers p WHERE p.item_id = i.id);
\ No newline at end of file
@@ -0,0 +1,3 @@
+-- Аренда незавершенного ключа: если реплика упала посреди запроса, повтор занимает ключ после locked_until,
+-- а не через ttl. У строк, вставленных до этой миграции, аренда отсчитывается от created
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP WITHOUT TIME ZONE;
\ No newline at end of file
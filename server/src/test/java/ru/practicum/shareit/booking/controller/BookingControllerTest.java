@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,26 +10,33 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
 import ru.practicum.shareit.booking.service.api.BookingService;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class BookingControllerTest {
 
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     private MockMvc mockMvc;
@@ -139,4 +147,89 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(responseDto.getId()));
     }
+
+    @Test
+    void testGetBookingByOwnerIdWhenCursorGivenThenUsesKeysetAndReturnsNextCursor() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        BookingResponseDto responseDto = BookingResponseDto.builder()
+                .id(7L)
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+        String cursor = new BookingCursor(start.plusDays(1), 9L).encode();
+        when(bookingService.getBookingsByOwnerIdAfter(eq(1L), eq("ALL"), eq(cursor), eq(1)))
+                .thenReturn(Collections.singletonList(responseDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(BookingController.USER_ID, 1L)
+                        .param("size", "1")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(header().string(BookingController.NEXT_CURSOR, new BookingCursor(start, 7L).encode()));
+    }
+
+    @Test
+    void testGetBookingByBookerIdWhenLastPageThenNoNextCursor() throws Exception {
+        when(bookingService.getBookingsByBookerId(eq(1L), eq("ALL"), eq(0), eq(10)))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/bookings")
+                        .header(BookingController.USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR));
+    }
+
+    @Test
+    void testGetBookingByOwnerIdWhenTotalRequestedThenReturnsApproximateTotal() throws Exception {
+        when(bookingService.getBookingsByOwnerId(eq(1L), eq("WAITING"), eq(0), eq(10)))
+                .thenReturn(Collections.emptyList());
+        when(bookingService.getApproximateTotalByOwnerId(eq(1L), eq("WAITING"))).thenReturn(42L);
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(BookingController.USER_ID, 1L)
+                        .param("state", "WAITING")
+                        .param("total", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.APPROXIMATE_TOTAL, "42"));
+    }
+
+    @Test
+    void testGetBookingByOwnerIdWhenSmileAcceptedThenRespondsInSmile() throws Exception {
+        BookingResponseDto responseDto = BookingResponseDto.builder()
+                .id(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        when(bookingService.getBookingsByOwnerId(eq(1L), eq("ALL"), eq(0), eq(10)))
+                .thenReturn(Collections.singletonList(responseDto));
+
+        byte[] body = mockMvc.perform(get("/bookings/owner")
+                        .header(BookingController.USER_ID, 1L)
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(1L, new ObjectMapper(new SmileFactory()).readTree(body).get(0).get("id").asLong());
+    }
+
+    @Test
+    void testSaveBookingWhenSmileBodyThenReturnBookingResponseDto() throws Exception {
+        BookingRequestDto requestDto = BookingRequestDto.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .itemId(1L)
+                .build();
+        when(bookingService.saveBooking(eq(1L), eq(requestDto)))
+                .thenReturn(BookingResponseDto.builder().id(1L).build());
+
+        mockMvc.perform(post("/bookings")
+                        .header(BookingController.USER_ID, 1L)
+                        .contentType(SMILE)
+                        .content(Jackson2ObjectMapperBuilder.smile().build().writeValueAsBytes(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
+    }
 }
+
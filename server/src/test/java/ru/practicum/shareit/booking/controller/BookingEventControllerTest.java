@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.enumeration.BookingStatus;
+import ru.practicum.shareit.booking.event.BookingEventStream;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class BookingEventControllerTest {
+
+    private final BookingEventStream eventStream = new BookingEventStream(Duration.ofMinutes(1));
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookingEventController(eventStream)).build();
+    }
+
+    @Test
+    void testSubscribeWhenBookingChangedThenEventIsStreamed() throws Exception {
+        MvcResult result = mockMvc.perform(get("/bookings/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        eventStream.onBookingChanged(BookingEventDto.builder()
+                .bookingId(7L)
+                .itemId(3L)
+                .bookerId(1L)
+                .ownerId(2L)
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:booking"), body);
+        assertTrue(body.contains("\"bookingId\":7"), body);
+        assertTrue(body.contains("\"status\":\"APPROVED\""), body);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enumeration.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Сравнение JSON и Smile на списке бронирований владельца: байты на ответ и CPU на кодирование и разбор.
+// Мапперы собраны так же, как в конвертерах Spring MVC
+@Slf4j
+class BookingWireFormatBenchmarkTest {
+
+    private static final int BOOKINGS = 100;
+    private static final int WARMUP = 300;
+    private static final int ITERATIONS = 1000;
+    private static final TypeReference<List<BookingResponseDto>> BOOKING_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+
+    @Test
+    void whenOwnerBookingListEncoded_thenSmileIsSmallerAndDecodesToSameList() throws Exception {
+        List<BookingResponseDto> bookings = ownerBookings();
+
+        byte[] jsonBytes = json.writeValueAsBytes(bookings);
+        byte[] smileBytes = smile.writeValueAsBytes(bookings);
+
+        assertEquals(bookings, smile.readValue(smileBytes, BOOKING_LIST));
+        assertTrue(smileBytes.length < jsonBytes.length);
+        log.info("Owner bookings ({} items): json {} bytes, smile {} bytes ({}%)", BOOKINGS, jsonBytes.length,
+                smileBytes.length, Math.round(smileBytes.length * 1000.0 / jsonBytes.length) / 10.0);
+        log.info("CPU per response, encode + decode: json {} us, smile {} us",
+                cpuMicrosPerRoundTrip(json, bookings), cpuMicrosPerRoundTrip(smile, bookings));
+    }
+
+    private static double cpuMicrosPerRoundTrip(ObjectMapper mapper, List<BookingResponseDto> bookings) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(bookings), BOOKING_LIST);
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(bookings), BOOKING_LIST);
+        }
+        return Math.round((threads.getCurrentThreadCpuTime() - start) / 100.0 / ITERATIONS) / 10.0;
+    }
+
+    private static List<BookingResponseDto> ownerBookings() {
+        UserDto owner = UserDto.builder().id(1L).name("Owner").email("owner@example.com").build();
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        return LongStream.rangeClosed(1, BOOKINGS)
+                .mapToObj(id -> BookingResponseDto.builder()
+                        .id(id)
+                        .start(now.plusDays(id))
+                        .end(now.plusDays(id + 1))
+                        .item(ItemDto.builder()
+                                .id(id % 10 + 1)
+                                .name("Item " + (id % 10 + 1))
+                                .description("Electric drill with two batteries")
+                                .available(true)
+                                .owner(owner)
+                                .build())
+                        .booker(UserDto.builder()
+                                .id(id + 1)
+                                .name("Booker " + id)
+                                .email("booker" + id + "@example.com")
+                                .build())
+                        .status(BookingStatus.values()[(int) (id % 3)])
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -4,22 +4,26 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.enumeration.BookingRole;
+import ru.practicum.shareit.booking.enumeration.BookingState;
 import ru.practicum.shareit.booking.enumeration.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.pagination.BookingCounts;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.api.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.api.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @DataJpaTest
 public class BookingRepositoryTest {
@@ -54,6 +58,7 @@ public class BookingRepositoryTest {
         booking.setItem(item);
         booking.setBooker(user);
         booking.setStatus(BookingStatus.APPROVED);
+        booking.setOwnerId(user.getId());
         bookingRepository.save(booking);
     }
 
@@ -77,147 +82,135 @@ public class BookingRepositoryTest {
 
     @Test
     void testFindAllByGivenUserIdWithPageable() {
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findAllByGivenUserId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.BOOKER, BookingState.ALL));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getId()).isEqualTo(booking.getId());
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getId()).isEqualTo(booking.getId());
     }
 
     @Test
     void testFindCurrentBookingsByBookerIdByPageable() {
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findCurrentBookingsByBookerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.BOOKER, BookingState.CURRENT));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getId()).isEqualTo(booking.getId());
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getId()).isEqualTo(booking.getId());
     }
 
     @Test
     void testFindPastBookingsByBookerIdByPageable() {
-        Pageable pageable = PageRequest.of(0, 10);
         LocalDateTime now = LocalDateTime.now();
-        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED);
+        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(pastBooking);
-        Page<Booking> foundBookingsPage = bookingRepository.findPastBookingsByBookerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.BOOKER, BookingState.PAST));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getId()).isEqualTo(pastBooking.getId());
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getId()).isEqualTo(pastBooking.getId());
     }
 
     @Test
     void testFindFutureBookingsByBookerIdByPageable() {
-        Pageable pageable = PageRequest.of(0, 10);
         LocalDateTime now = LocalDateTime.now();
-        Booking futureBooking = new Booking(null, now.plusDays(1), now.plusDays(2), item, user, BookingStatus.APPROVED);
+        Booking futureBooking = new Booking(null, now.plusDays(1), now.plusDays(2), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(futureBooking);
-        Page<Booking> foundBookingsPage = bookingRepository.findFutureBookingsByBookerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.BOOKER, BookingState.FUTURE));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getId()).isEqualTo(futureBooking.getId());
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getId()).isEqualTo(futureBooking.getId());
     }
 
     @Test
     void testFindWaitingBookingsByBookerIdByPageable() {
-        Pageable pageable = PageRequest.of(0, 10);
-        Booking waitingBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.WAITING);
+        Booking waitingBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.WAITING, user.getId());
         bookingRepository.save(waitingBooking);
-        Page<Booking> foundBookingsPage = bookingRepository.findWaitingBookingsByBookerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.BOOKER, BookingState.WAITING));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getStatus()).isEqualTo(BookingStatus.WAITING);
     }
 
     @Test
     void testFindRejectedBookingsByBookerIdByPageable() {
-        Pageable pageable = PageRequest.of(0, 10);
-        Booking rejectedBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.REJECTED);
+        Booking rejectedBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.REJECTED, user.getId());
         bookingRepository.save(rejectedBooking);
-        Page<Booking> foundBookingsPage = bookingRepository.findRejectedBookingsByBookerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.BOOKER, BookingState.REJECTED));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
     }
 
     @Test
     void testFindAllBookingsByOwnerIdByPageable() {
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findAllBookingsByOwnerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.OWNER, BookingState.ALL));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getItem().getOwner()).isEqualTo(user);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getItem().getOwner()).isEqualTo(user);
     }
 
     @Test
     void testFindCurrentBookingsByOwnerIdByPageable() {
         LocalDateTime now = LocalDateTime.now();
-        Booking currentBooking = new Booking(null, now.minusHours(1), now.plusHours(1), item, user, BookingStatus.APPROVED);
+        Booking currentBooking = new Booking(null, now.minusHours(1), now.plusHours(1), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(currentBooking);
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findCurrentBookingsByOwnerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.OWNER, BookingState.CURRENT));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getItem().getOwner()).isEqualTo(user);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getItem().getOwner()).isEqualTo(user);
     }
 
     @Test
     void testFindPastBookingsByOwnerIdByPageable() {
         LocalDateTime now = LocalDateTime.now();
-        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED);
+        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(pastBooking);
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findPastBookingsByOwnerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.OWNER, BookingState.PAST));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getItem().getOwner()).isEqualTo(user);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getItem().getOwner()).isEqualTo(user);
     }
 
     @Test
     void testFindFutureBookingsByOwnerIdByPageable() {
         LocalDateTime now = LocalDateTime.now();
-        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED);
+        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(pastBooking);
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findPastBookingsByOwnerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.OWNER, BookingState.PAST));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getItem().getOwner()).isEqualTo(user);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getItem().getOwner()).isEqualTo(user);
     }
 
     @Test
     void testFindWaitingBookingsByOwnerIdByPageable() {
-        Booking waitingBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.WAITING);
+        Booking waitingBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.WAITING, user.getId());
         bookingRepository.save(waitingBooking);
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findWaitingBookingsByOwnerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.OWNER, BookingState.WAITING));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getStatus()).isEqualTo(BookingStatus.WAITING);
     }
 
     @Test
     void testFindRejectedBookingsByOwnerIdPageable() {
-        Booking rejectedBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.REJECTED);
+        Booking rejectedBooking = new Booking(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.REJECTED, user.getId());
         bookingRepository.save(rejectedBooking);
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Booking> foundBookingsPage = bookingRepository.findRejectedBookingsByOwnerId(user.getId(), pageable);
+        List<Booking> foundBookings = bookingRepository.findBookings(query(BookingRole.OWNER, BookingState.REJECTED));
 
-        assertThat(foundBookingsPage.getContent()).isNotNull();
-        assertThat(foundBookingsPage.getContent().get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(foundBookings).isNotNull();
+        assertThat(foundBookings.get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
     }
 
     @Test
     void testFindPastBookingsByItemId() {
         LocalDateTime now = LocalDateTime.now();
-        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED);
+        Booking pastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(pastBooking);
 
-        List<Booking> foundBookings = bookingRepository.findPastBookingsByItemId(item.getId());
+        List<Booking> foundBookings = bookingRepository.findPastBookingsByItemId(item.getId(), now, PageRequest.of(0, 1));
 
         assertThat(foundBookings).isNotNull();
         assertThat(foundBookings.get(0).getItem().getId()).isEqualTo(item.getId());
@@ -226,43 +219,45 @@ public class BookingRepositoryTest {
     @Test
     void testFindFutureBookingsByItemId() {
         LocalDateTime now = LocalDateTime.now();
-        Booking futureBooking = new Booking(null, now.plusDays(1), now.plusDays(2), item, user, BookingStatus.APPROVED);
+        Booking futureBooking = new Booking(null, now.plusDays(1), now.plusDays(2), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(futureBooking);
 
-        List<Booking> foundBookings = bookingRepository.findFutureBookingsByItemId(item.getId());
+        List<Booking> foundBookings = bookingRepository.findFutureBookingsByItemId(item.getId(), now, PageRequest.of(0, 1));
 
         assertThat(foundBookings).isNotNull();
         assertThat(foundBookings.get(0).getItem().getId()).isEqualTo(item.getId());
     }
 
     @Test
-    void testFindLastBookingsForOwnerItems() {
+    void testFindLastAndNextBookingsByItemIdReturnNearestFirst() {
         LocalDateTime now = LocalDateTime.now();
-        Booking lastBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED);
-        bookingRepository.save(lastBooking);
+        bookingRepository.save(new Booking(null, now.minusDays(5), now.minusDays(4), item, user, BookingStatus.APPROVED, user.getId()));
+        Booking latestPast = bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item, user, BookingStatus.REJECTED, user.getId()));
+        Booking nearestFuture = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, user, BookingStatus.WAITING, user.getId()));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), item, user, BookingStatus.WAITING, user.getId()));
 
-        List<Booking> foundBookings = bookingRepository.findLastBookingsForOwnerItems(user.getId());
+        List<Booking> last = bookingRepository.findLastBookingsByItemId(item.getId(), now, PageRequest.of(0, 1));
+        List<Booking> next = bookingRepository.findNextBookingsByItemId(item.getId(), now, PageRequest.of(0, 1));
 
-        assertThat(foundBookings).isNotNull();
-        assertThat(foundBookings.get(0).getItem().getOwner().getId()).isEqualTo(user.getId());
+        assertThat(last).extracting(Booking::getId).containsExactly(latestPast.getId());
+        assertThat(next).extracting(Booking::getId).containsExactly(nearestFuture.getId());
     }
 
     @Test
-    void testFindNextBookingsForOwnerItems() {
-        LocalDateTime now = LocalDateTime.now();
-        Booking nextBooking = new Booking(null, now.plusDays(1), now.plusDays(2), item, user, BookingStatus.APPROVED);
-        bookingRepository.save(nextBooking);
-
-        List<Booking> foundBookings = bookingRepository.findNextBookingsForOwnerItems(user.getId());
-
-        assertThat(foundBookings).isNotNull();
-        assertThat(foundBookings.get(0).getItem().getOwner().getId()).isEqualTo(user.getId());
+    void testFindNextChangeByItemIdReturnsNearestStartOrEnd() {
+        // Позже конца брони из setUp, чтобы в выборку попадала только новая
+        LocalDateTime later = LocalDateTime.now().plusDays(2).withNano(0);
+        bookingRepository.save(new Booking(null, later.plusHours(1), later.plusHours(2), item, user, BookingStatus.WAITING, user.getId()));
+
+        assertEquals(later.plusHours(1), bookingRepository.findNextChangeByItemId(item.getId(), later));
+        assertEquals(later.plusHours(2), bookingRepository.findNextChangeByItemId(item.getId(), later.plusMinutes(90)));
+        assertNull(bookingRepository.findNextChangeByItemId(item.getId(), later.plusHours(3)));
     }
 
     @Test
     void testFindFinishedBookingsByItemAndUser() {
         LocalDateTime now = LocalDateTime.now();
-        Booking finishedBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED);
+        Booking finishedBooking = new Booking(null, now.minusDays(2), now.minusDays(1), item, user, BookingStatus.APPROVED, user.getId());
         bookingRepository.save(finishedBooking);
 
         List<Booking> foundBookings = bookingRepository.findFinishedBookingsByItemAndUser(item.getId(), user.getId());
@@ -271,4 +266,83 @@ public class BookingRepositoryTest {
         assertThat(foundBookings.get(0).getItem().getId()).isEqualTo(item.getId());
         assertThat(foundBookings.get(0).getBooker().getId()).isEqualTo(user.getId());
     }
+
+    @Test
+    void testFindBookingsWithCursorWalksAllPagesInOffsetOrder() {
+        LocalDateTime sameStart = LocalDateTime.now().minusDays(3).withNano(0);
+        for (int i = 0; i < 4; i++) {
+            bookingRepository.save(new Booking(null, sameStart, sameStart.plusHours(1), item, user, BookingStatus.WAITING, user.getId()));
+        }
+        List<Booking> expected = bookingRepository.findBookings(query(BookingRole.OWNER, BookingState.ALL));
+
+        List<Booking> walked = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<Booking> page;
+        do {
+            page = bookingRepository.findBookings(BookingQuery.builder()
+                    .role(BookingRole.OWNER)
+                    .userId(user.getId())
+                    .state(BookingState.ALL)
+                    .now(LocalDateTime.now())
+                    .cursor(cursor)
+                    .limit(2)
+                    .build());
+            walked.addAll(page);
+            if (!page.isEmpty()) {
+                Booking last = page.get(page.size() - 1);
+                cursor = new BookingCursor(last.getStart(), last.getId());
+            }
+        } while (!page.isEmpty());
+
+        assertEquals(5, walked.size());
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void testFindBookingsWithOffsetNotMultipleOfSize() {
+        for (int i = 1; i <= 3; i++) {
+            LocalDateTime start = LocalDateTime.now().minusDays(1 + i);
+            bookingRepository.save(new Booking(null, start, start.plusDays(1), item, user, BookingStatus.APPROVED, user.getId()));
+        }
+        List<Booking> all = bookingRepository.findBookings(query(BookingRole.BOOKER, BookingState.ALL));
+
+        List<Booking> page = bookingRepository.findBookings(BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(user.getId())
+                .state(BookingState.ALL)
+                .now(LocalDateTime.now())
+                .offset(1)
+                .limit(2)
+                .build());
+
+        assertEquals(all.subList(1, 3), page);
+    }
+
+    @Test
+    void testCountBookingsByOwnerCountsEveryState() {
+        Booking rejected = new Booking(null, LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3),
+                item, user, BookingStatus.REJECTED, user.getId());
+        bookingRepository.save(rejected);
+
+        BookingCounts counts = bookingRepository.countBookings(BookingRole.OWNER, user.getId(), LocalDateTime.now());
+
+        assertEquals(2, counts.get(BookingState.ALL));
+        assertEquals(1, counts.get(BookingState.CURRENT));
+        assertEquals(0, counts.get(BookingState.PAST));
+        assertEquals(1, counts.get(BookingState.FUTURE));
+        assertEquals(0, counts.get(BookingState.WAITING));
+        assertEquals(1, counts.get(BookingState.REJECTED));
+        assertEquals(0, bookingRepository.countBookings(BookingRole.OWNER, -1L, LocalDateTime.now())
+                .get(BookingState.ALL));
+    }
+
+    private BookingQuery query(BookingRole role, BookingState state) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(user.getId())
+                .state(state)
+                .now(LocalDateTime.now())
+                .limit(10)
+                .build();
+    }
 }
\ No newline at end of file
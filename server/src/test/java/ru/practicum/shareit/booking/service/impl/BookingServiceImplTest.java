@@ -3,23 +3,28 @@ package ru.practicum.shareit.booking.service.impl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enumeration.BookingRole;
+import ru.practicum.shareit.booking.enumeration.BookingState;
 import ru.practicum.shareit.booking.enumeration.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.CustomBadRequestException;
 import ru.practicum.shareit.exception.CustomEntityNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
 import ru.practicum.shareit.item.repository.api.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -43,6 +48,10 @@ class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ItemBookingPointers itemBookingPointers;
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -99,6 +108,18 @@ class BookingServiceImplTest {
         verify(userRepository).findById(booker.getId());
         verify(itemRepository).findById(item.getId());
         verify(bookingRepository).save(any(Booking.class));
+        verify(itemBookingPointers).refresh(eq(item.getId()), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testSaveBookingCopiesItemOwnerIdToBooking() {
+        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(booker)));
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(ItemMapper.INSTANCE.toItem(item)));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking));
+
+        bookingService.saveBooking(booker.getId(), bookingRequestDto);
+
+        verify(bookingRepository).save(argThat(saved -> owner.getId().equals(saved.getOwnerId())));
     }
 
     @Test
@@ -168,6 +189,14 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.APPROVED, result.getStatus());
         verify(bookingRepository).findBookingByIdWithItemAndBookerEagerly(booking.getId());
         verify(bookingRepository).save(bookingFromBookingResponseDto);
+        verify(itemBookingPointers).refresh(eq(item.getId()), any(LocalDateTime.class));
+        verify(eventPublisher).publishEvent(BookingEventDto.builder()
+                .bookingId(booking.getId())
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .ownerId(owner.getId())
+                .status(BookingStatus.APPROVED)
+                .build());
     }
 
     @Test
@@ -253,9 +282,8 @@ class BookingServiceImplTest {
         Integer from = 0;
         Integer size = 10;
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(booker)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findAllByGivenUserId(eq(bookerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.BOOKER, BookingState.ALL, bookerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByBookerId(bookerId, state, from, size);
 
@@ -263,7 +291,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(booker.getId());
-        verify(bookingRepository).findAllByGivenUserId(eq(bookerId), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.BOOKER, BookingState.ALL, bookerId)));
     }
 
     @Test
@@ -273,9 +301,8 @@ class BookingServiceImplTest {
         Integer from = 0;
         Integer size = 10;
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(booker)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findCurrentBookingsByBookerId(eq(bookerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.BOOKER, BookingState.CURRENT, bookerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByBookerId(bookerId, state, from, size);
 
@@ -283,7 +310,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(booker.getId());
-        verify(bookingRepository).findCurrentBookingsByBookerId(eq(bookerId), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.BOOKER, BookingState.CURRENT, bookerId)));
     }
 
     @Test
@@ -293,9 +320,8 @@ class BookingServiceImplTest {
         Integer from = 0;
         Integer size = 10;
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(booker)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findPastBookingsByBookerId(eq(bookerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.BOOKER, BookingState.PAST, bookerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByBookerId(bookerId, state, from, size);
 
@@ -303,7 +329,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(booker.getId());
-        verify(bookingRepository).findPastBookingsByBookerId(eq(bookerId), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.BOOKER, BookingState.PAST, bookerId)));
     }
 
     @Test
@@ -313,9 +339,8 @@ class BookingServiceImplTest {
         Integer from = 0;
         Integer size = 10;
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(booker)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findFutureBookingsByBookerId(eq(bookerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.BOOKER, BookingState.FUTURE, bookerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByBookerId(bookerId, state, from, size);
 
@@ -323,7 +348,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(booker.getId());
-        verify(bookingRepository).findFutureBookingsByBookerId(eq(bookerId), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.BOOKER, BookingState.FUTURE, bookerId)));
     }
 
     @Test
@@ -333,9 +358,8 @@ class BookingServiceImplTest {
         Integer from = 0;
         Integer size = 10;
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(booker)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findWaitingBookingsByBookerId(eq(bookerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.BOOKER, BookingState.WAITING, bookerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByBookerId(bookerId, state, from, size);
 
@@ -343,7 +367,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(booker.getId());
-        verify(bookingRepository).findWaitingBookingsByBookerId(eq(bookerId), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.BOOKER, BookingState.WAITING, bookerId)));
     }
 
     @Test
@@ -353,9 +377,8 @@ class BookingServiceImplTest {
         Integer from = 0;
         Integer size = 10;
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(booker)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findRejectedBookingsByBookerId(eq(bookerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.BOOKER, BookingState.REJECTED, bookerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByBookerId(bookerId, state, from, size);
 
@@ -363,7 +386,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(booker.getId());
-        verify(bookingRepository).findRejectedBookingsByBookerId(eq(bookerId), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.BOOKER, BookingState.REJECTED, bookerId)));
     }
 
     @Test
@@ -386,9 +409,8 @@ class BookingServiceImplTest {
         Integer size = 10;
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(owner)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findAllBookingsByOwnerId(eq(ownerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.OWNER, BookingState.ALL, ownerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByOwnerId(ownerId, state, from, size);
 
@@ -396,7 +418,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(owner.getId());
-        verify(bookingRepository).findAllBookingsByOwnerId(eq(owner.getId()), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.OWNER, BookingState.ALL, owner.getId())));
     }
 
     @Test
@@ -407,9 +429,8 @@ class BookingServiceImplTest {
         Integer size = 10;
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(owner)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findCurrentBookingsByOwnerId(eq(ownerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.OWNER, BookingState.CURRENT, ownerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByOwnerId(ownerId, state, from, size);
 
@@ -417,7 +438,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(owner.getId());
-        verify(bookingRepository).findCurrentBookingsByOwnerId(eq(owner.getId()), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.OWNER, BookingState.CURRENT, owner.getId())));
     }
 
     @Test
@@ -428,9 +449,8 @@ class BookingServiceImplTest {
         Integer size = 10;
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(owner)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findPastBookingsByOwnerId(eq(ownerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.OWNER, BookingState.PAST, ownerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByOwnerId(ownerId, state, from, size);
 
@@ -438,7 +458,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(owner.getId());
-        verify(bookingRepository).findPastBookingsByOwnerId(eq(owner.getId()), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.OWNER, BookingState.PAST, owner.getId())));
     }
 
     @Test
@@ -449,9 +469,8 @@ class BookingServiceImplTest {
         Integer size = 10;
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(owner)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findFutureBookingsByOwnerId(eq(ownerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.OWNER, BookingState.FUTURE, ownerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByOwnerId(ownerId, state, from, size);
 
@@ -459,7 +478,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(owner.getId());
-        verify(bookingRepository).findFutureBookingsByOwnerId(eq(owner.getId()), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.OWNER, BookingState.FUTURE, owner.getId())));
     }
 
     @Test
@@ -470,9 +489,8 @@ class BookingServiceImplTest {
         Integer size = 10;
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(owner)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findWaitingBookingsByOwnerId(eq(ownerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.OWNER, BookingState.WAITING, ownerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByOwnerId(ownerId, state, from, size);
 
@@ -480,7 +498,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(owner.getId());
-        verify(bookingRepository).findWaitingBookingsByOwnerId(eq(owner.getId()), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.OWNER, BookingState.WAITING, owner.getId())));
     }
 
     @Test
@@ -491,9 +509,8 @@ class BookingServiceImplTest {
         Integer size = 10;
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(owner)));
-        var page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findRejectedBookingsByOwnerId(eq(ownerId), any(Pageable.class))).thenReturn(page);
+        when(bookingRepository.findBookings(argThat(query(BookingRole.OWNER, BookingState.REJECTED, ownerId))))
+                .thenReturn(List.of(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
 
         List<BookingResponseDto> result = bookingService.getBookingsByOwnerId(ownerId, state, from, size);
 
@@ -501,7 +518,7 @@ class BookingServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(bookingResponseDto, result.get(0));
         verify(userRepository).findById(owner.getId());
-        verify(bookingRepository).findRejectedBookingsByOwnerId(eq(owner.getId()), any(Pageable.class));
+        verify(bookingRepository).findBookings(argThat(query(BookingRole.OWNER, BookingState.REJECTED, owner.getId())));
     }
 
     @Test
@@ -515,4 +532,8 @@ class BookingServiceImplTest {
 
         assertThrows(IllegalStateException.class, () -> bookingService.getBookingsByOwnerId(ownerId, state, from, size));
     }
+
+    private static ArgumentMatcher<BookingQuery> query(BookingRole role, BookingState state, Long userId) {
+        return query -> query.getRole() == role && query.getState() == state && userId.equals(query.getUserId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package ru.practicum.shareit.idempotency.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.CustomExceptionHandler;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRepository;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
+import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.api.ItemService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ключи пишутся в базу отдельными транзакциями, как в работающем сервисе
+@DataJpaTest(properties = "shareit.idempotency.wait-timeout=200ms")
+@Import(IdempotencyService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyFilterTest {
+
+    private static final String ITEM_JSON = "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    private ItemService itemService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        itemService = Mockito.mock(ItemService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ItemController(itemService))
+                .setControllerAdvice(new CustomExceptionHandler())
+                .addFilters(new IdempotencyFilter(idempotencyService, new ObjectMapper()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyRepository.deleteAll();
+    }
+
+    @Test
+    void whenPostIsRetriedWithSameKey_thenItemIsCreatedOnceAndResponseIsReplayed() throws Exception {
+        when(itemService.saveItem(eq(1L), any(ItemDto.class)))
+                .thenReturn(ItemDto.builder().id(7L).name("Дрель").available(true).build());
+
+        mockMvc.perform(postItem("key-1", ITEM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED))
+                .andExpect(jsonPath("$.id").value(7));
+        mockMvc.perform(postItem("key-1", ITEM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"))
+                .andExpect(jsonPath("$.id").value(7));
+
+        verify(itemService, times(1)).saveItem(eq(1L), any(ItemDto.class));
+    }
+
+    @Test
+    void whenKeyIsReusedWithDifferentBody_thenUnprocessableEntity() throws Exception {
+        when(itemService.saveItem(eq(1L), any(ItemDto.class)))
+                .thenReturn(ItemDto.builder().id(7L).build());
+
+        mockMvc.perform(postItem("key-2", ITEM_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(postItem("key-2", ITEM_JSON.replace("Дрель", "Пила")))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(itemService, times(1)).saveItem(eq(1L), any(ItemDto.class));
+    }
+
+    @Test
+    void whenFirstAttemptFailsWithServerError_thenRetryExecutesAgain() throws Exception {
+        when(itemService.saveItem(eq(1L), any(ItemDto.class)))
+                .thenThrow(new RuntimeException("Database is down"))
+                .thenReturn(ItemDto.builder().id(8L).build());
+
+        mockMvc.perform(postItem("key-3", ITEM_JSON))
+                .andExpect(status().isInternalServerError());
+        mockMvc.perform(postItem("key-3", ITEM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(8));
+
+        verify(itemService, times(2)).saveItem(eq(1L), any(ItemDto.class));
+    }
+
+    @Test
+    void whenDuplicateArrivesDuringFirstExecution_thenItWaitsAndGetsTheSameResponse() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemService.saveItem(eq(1L), any(ItemDto.class))).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ItemDto.builder().id(9L).build();
+        });
+
+        CompletableFuture<MvcResult> first = CompletableFuture.supplyAsync(() -> perform("key-4"));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MvcResult> duplicate = CompletableFuture.supplyAsync(() -> perform("key-4"));
+        Thread.sleep(100);
+        release.countDown();
+
+        MvcResult replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(first.get(5, TimeUnit.SECONDS).getResponse().getContentAsString()).contains("\"id\":9");
+        assertThat(replayed.getResponse().getStatus()).isEqualTo(200);
+        assertThat(replayed.getResponse().getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+        assertThat(replayed.getResponse().getContentAsString()).contains("\"id\":9");
+        verify(itemService, times(1)).saveItem(eq(1L), any(ItemDto.class));
+    }
+
+    @Test
+    void whenOwnerCrashedAndLeaseExpired_thenRetryTakesOverKey() throws Exception {
+        // Реплика заняла ключ и упала, не завершив запрос
+        LocalDateTime started = LocalDateTime.now().minusMinutes(5);
+        idempotencyRepository.insertInProgress(1L, "key-5", sha256Of(ITEM_JSON), started, started.plusMinutes(1));
+        when(itemService.saveItem(eq(1L), any(ItemDto.class))).thenReturn(ItemDto.builder().id(10L).build());
+
+        mockMvc.perform(postItem("key-5", ITEM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED))
+                .andExpect(jsonPath("$.id").value(10));
+
+        verify(itemService, times(1)).saveItem(eq(1L), any(ItemDto.class));
+    }
+
+    @Test
+    void whenLeaseIsStillHeld_thenRetryGetsConflict() throws Exception {
+        LocalDateTime started = LocalDateTime.now();
+        idempotencyRepository.insertInProgress(1L, "key-6", sha256Of(ITEM_JSON), started, started.plusMinutes(1));
+
+        mockMvc.perform(postItem("key-6", ITEM_JSON))
+                .andExpect(status().isConflict());
+
+        verify(itemService, times(0)).saveItem(eq(1L), any(ItemDto.class));
+    }
+
+    @Test
+    void whenExpiredKeyIsTakenOver_thenOnlyOneRetryGetsIt() {
+        LocalDateTime started = LocalDateTime.now().minusMinutes(5);
+        idempotencyRepository.insertInProgress(1L, "key-7", "hash", started, started.plusMinutes(1));
+
+        assertThat(idempotencyService.tryStart(1L, "key-7", "hash")).isTrue();
+        // Второй повтор видит уже новую запись с действующей арендой и не удаляет ее
+        assertThat(idempotencyService.tryStart(1L, "key-7", "hash")).isFalse();
+        assertThat(idempotencyRepository.findAll())
+                .singleElement()
+                .satisfies(record -> assertThat(record.getCreated()).isAfter(started));
+        idempotencyService.abandon(1L, "key-7");
+    }
+
+    @Test
+    void whenNoKeyIsSent_thenEveryPostIsExecuted() throws Exception {
+        when(itemService.saveItem(eq(1L), any(ItemDto.class))).thenReturn(ItemDto.builder().id(7L).build());
+
+        mockMvc.perform(post("/items").header(ItemController.USER_ID, 1L)
+                .contentType(MediaType.APPLICATION_JSON).content(ITEM_JSON)).andExpect(status().isOk());
+        mockMvc.perform(post("/items").header(ItemController.USER_ID, 1L)
+                .contentType(MediaType.APPLICATION_JSON).content(ITEM_JSON)).andExpect(status().isOk());
+
+        verify(itemService, times(2)).saveItem(eq(1L), any(ItemDto.class));
+        assertThat(idempotencyRepository.count()).isZero();
+    }
+
+    private MvcResult perform(String key) {
+        try {
+            return mockMvc.perform(postItem(key, ITEM_JSON)).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256Of(String body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static MockHttpServletRequestBuilder postItem(String key, String body) {
+        return post("/items")
+                .header(ItemController.USER_ID, 1L)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
@@ -7,10 +7,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.config.HttpConfig;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.api.ItemService;
@@ -21,10 +23,13 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -227,4 +232,29 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.authorName").value(responseDto.getAuthorName()))
                 .andExpect(jsonPath("$.created").exists());
     }
+
+    @Test
+    void testGetByIdWhenEtagMatchesThenReturnNotModified() throws Exception {
+        ItemDto itemDto = ItemDto.builder()
+                .id(1L)
+                .name("Найденный предмет")
+                .available(true)
+                .build();
+        when(itemService.getById(1L, 1L)).thenReturn(itemDto);
+        MockMvc etagMockMvc = MockMvcBuilders.standaloneSetup(itemController)
+                .addFilters(new HttpConfig().etagFilter().getFilter())
+                .build();
+
+        String etag = etagMockMvc.perform(get("/items/1")
+                        .header(ItemController.USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        etagMockMvc.perform(get("/items/1")
+                        .header(ItemController.USER_ID, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.pointer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.enumeration.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.repository.api.ItemBookingPointerRepository;
+import ru.practicum.shareit.item.repository.api.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.api.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ItemBookingPointers.class, ItemBookingPointerJob.class})
+class ItemBookingPointersTest {
+
+    @Autowired
+    private ItemBookingPointers pointers;
+    @Autowired
+    private ItemBookingPointerJob job;
+    @Autowired
+    private ItemBookingPointerRepository pointerRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "owner@example.com"));
+        booker = userRepository.save(new User(null, "Booker", "booker@example.com"));
+        item = itemRepository.save(new Item(null, "Item", "Description", true, owner, null));
+    }
+
+    @Test
+    void testRefreshPointsToLastAndNextBookings() {
+        save(now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        Booking rejected = save(now.minusHours(5), now.minusHours(4), BookingStatus.REJECTED);
+        Booking current = save(now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        Booking next = save(now.plusDays(1), now.plusDays(2), BookingStatus.REJECTED);
+        Booking future = save(now.plusDays(3), now.plusDays(4), BookingStatus.WAITING);
+
+        ItemBookingPointer pointer = pointers.refresh(item.getId(), now);
+
+        assertEquals(rejected.getId(), pointer.getLastBookingId());
+        assertEquals(booker.getId(), pointer.getLastBookerId());
+        assertEquals(next.getId(), pointer.getNextBookingId());
+        assertEquals(current.getId(), pointer.getPastBookingId());
+        assertEquals(future.getId(), pointer.getFutureBookingId());
+        assertEquals(current.getEnd(), pointer.getValidUntil());
+    }
+
+    @Test
+    void testRefreshWithoutBookingsNeverExpires() {
+        ItemBookingPointer pointer = pointers.refresh(item.getId(), now);
+
+        assertNull(pointer.getLastBookingId());
+        assertNull(pointer.getNextBookingId());
+        assertTrue(pointer.getValidUntil().isAfter(now.plusYears(100)));
+    }
+
+    @Test
+    void testCurrentServesExpiredPointerWithoutRefreshing() {
+        Booking booking = save(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        pointerRepository.save(ItemBookingPointer.builder()
+                .itemId(item.getId())
+                .validUntil(now.minusMinutes(1))
+                .build());
+
+        ItemBookingPointer pointer = pointers.current(List.of(item.getId())).get(item.getId());
+
+        // Пересчет - дело фоновой задачи, чтение ничего не пишет
+        assertNull(pointer.getLastBookingId());
+        assertEquals(now.minusMinutes(1), pointerRepository.findById(item.getId()).orElseThrow().getValidUntil());
+        job.refreshExpired();
+        assertEquals(booking.getId(), pointerRepository.findById(item.getId()).orElseThrow().getLastBookingId());
+    }
+
+    @Test
+    void testCurrentReturnsEmptyPointerForMissingRow() {
+        ItemBookingPointer pointer = pointers.current(List.of(item.getId())).get(item.getId());
+
+        assertEquals(item.getId(), pointer.getItemId());
+        assertNull(pointer.getLastBookingId());
+        assertTrue(pointerRepository.findById(item.getId()).isEmpty());
+    }
+
+    @Test
+    void testJobRollsExpiredPointersForward() {
+        Booking booking = save(now.minusHours(2), now.minusHours(1), BookingStatus.APPROVED);
+        pointerRepository.save(ItemBookingPointer.builder()
+                .itemId(item.getId())
+                .pastBookingId(booking.getId())
+                .validUntil(now.minusHours(1))
+                .build());
+
+        job.refreshExpired();
+
+        ItemBookingPointer pointer = pointerRepository.findById(item.getId()).orElseThrow();
+        assertEquals(booking.getId(), pointer.getLastBookingId());
+        assertTrue(pointer.getValidUntil().isAfter(now));
+    }
+
+    @Test
+    void testRefreshIfExpiredSkipsPointerRefreshedByAnotherPass() {
+        save(now.minusHours(2), now.minusHours(1), BookingStatus.APPROVED);
+        pointerRepository.save(ItemBookingPointer.builder()
+                .itemId(item.getId())
+                .validUntil(now.minusHours(1))
+                .build());
+
+        assertTrue(pointers.refreshIfExpired(item.getId(), now));
+        // Второй проход взял ту же вещь из своей выборки, но указатель уже сдвинут
+        assertFalse(pointers.refreshIfExpired(item.getId(), now));
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(new Booking(null, start, end, item, booker, status, owner.getId()));
+    }
+}
\ No newline at end of file
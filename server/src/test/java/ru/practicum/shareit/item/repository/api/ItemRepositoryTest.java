@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.api.UserRepository;
@@ -71,4 +72,15 @@ public class ItemRepositoryTest {
         assertThat(foundItems).hasSize(1);
         assertThat(foundItems.get(0).getName()).containsIgnoringCase("дрель");
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenFindIdsAfter_thenReturnIdsInOrderPageByPage() {
+        List<Long> allIds = itemRepository.findIdsAfter(0L, PageRequest.of(0, 10));
+        List<Long> firstPage = itemRepository.findIdsAfter(0L, PageRequest.of(0, 1));
+        List<Long> secondPage = itemRepository.findIdsAfter(firstPage.get(0), PageRequest.of(0, 1));
+
+        assertThat(allIds).hasSize(2).isSorted();
+        assertThat(firstPage).containsExactly(allIds.get(0));
+        assertThat(secondPage).containsExactly(allIds.get(1));
+    }
+}
@@ -8,10 +8,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
-import ru.practicum.shareit.booking.enumeration.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.CustomBadRequestException;
 import ru.practicum.shareit.exception.CustomEntityNotFoundException;
@@ -21,6 +20,8 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.pointer.ItemBookingPointers;
 import ru.practicum.shareit.item.repository.api.CommentRepository;
 import ru.practicum.shareit.item.repository.api.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -46,6 +47,8 @@ class ItemServiceImplTest {
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private ItemBookingPointers itemBookingPointers;
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -64,6 +67,13 @@ class ItemServiceImplTest {
         comment = new CommentDto(1L, "Comment", item, user, null, null);
         commentDto = new CommentDto(1L, "Comment", item, user, "User", null);
         booking = new BookingResponseDto(1L, null, null, item, user, null);
+        when(itemBookingPointers.current(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, ItemBookingPointer> pointers = new HashMap<>();
+            for (Long itemId : invocation.<Collection<Long>>getArgument(0)) {
+                pointers.put(itemId, ItemBookingPointer.builder().itemId(itemId).build());
+            }
+            return pointers;
+        });
     }
 
     @Test
@@ -89,6 +99,7 @@ class ItemServiceImplTest {
 
         assertNotNull(savedItemDto);
         assertEquals(requestId, savedItemDto.getRequestId());
+        verify(itemBookingPointers).refresh(eq(1L), any(LocalDateTime.class));
     }
 
     @Test
@@ -177,8 +188,6 @@ class ItemServiceImplTest {
     void testGetAllItemsWhenAllDependenciesAvailableThenAllItemsRetrieved() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserMapper.INSTANCE.toUser(user)));
         when(itemRepository.getItemsByOwnerId(anyLong())).thenReturn(Collections.singletonList(ItemMapper.INSTANCE.toItem(item)));
-        when(bookingRepository.findLastBookingsForOwnerItems(anyLong())).thenReturn(Collections.singletonList(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
-        when(bookingRepository.findNextBookingsForOwnerItems(anyLong())).thenReturn(Collections.singletonList(BookingMapper.INSTANCE.toBookingFromBookingResponseDto(booking)));
         when(commentRepository.findByAuthorId(anyLong())).thenReturn(Collections.singletonList(CommentMapper.INSTANCE.toComment(comment)));
 
         List<ItemDto> result = itemService.getAllItems(user.getId());
@@ -199,61 +208,52 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void getAllItemsShouldKeepExistingBookingWhenCollisionOccurs() {
+    void getAllItemsShouldTakeLastAndNextBookingFromPointers() {
         Long ownerId = 1L;
         Long itemId = 1L;
-        User booker = new User(1L, "User Name", "user@example.com");
-        Item item = new Item(1L, "Item Name", "Item Description", true, booker, null);
-        Booking lastBooking = new Booking(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().minusHours(1), item, booker, BookingStatus.APPROVED);
-        Booking anotherLastBooking = new Booking(2L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), item, booker, BookingStatus.APPROVED);
+        User owner = new User(ownerId, "Owner Name", "owner@example.com");
+        Item item = new Item(itemId, "Item Name", "Item Description", true, owner, null);
+        ItemBookingPointer pointer = ItemBookingPointer.builder()
+                .itemId(itemId)
+                .lastBookingId(10L).lastBookerId(2L)
+                .nextBookingId(11L).nextBookerId(3L)
+                .pastBookingId(12L).pastBookerId(4L)
+                .build();
 
         when(itemRepository.getItemsByOwnerId(ownerId)).thenReturn(Collections.singletonList(item));
-        when(bookingRepository.findLastBookingsForOwnerItems(ownerId)).thenReturn(Arrays.asList(lastBooking, anotherLastBooking));
-        when(bookingRepository.findNextBookingsForOwnerItems(ownerId)).thenReturn(new ArrayList<>());
+        when(itemBookingPointers.current(List.of(itemId))).thenReturn(Map.of(itemId, pointer));
         when(commentRepository.findByAuthorId(ownerId)).thenReturn(new ArrayList<>());
 
         List<ItemDto> items = itemService.getAllItems(ownerId);
 
-        assertNotNull(items);
-        assertFalse(items.isEmpty());
         assertEquals(1, items.size());
-        ItemDto resultItem = items.get(0);
-        assertNotNull(resultItem.getLastBooking());
-        assertEquals(lastBooking.getId(), resultItem.getLastBooking().getId());
-
-        verify(itemRepository).getItemsByOwnerId(ownerId);
-        verify(bookingRepository).findLastBookingsForOwnerItems(ownerId);
-        verify(bookingRepository).findNextBookingsForOwnerItems(ownerId);
-        verify(commentRepository).findByAuthorId(ownerId);
+        assertEquals(new BookingItemDto(10L, 2L), items.get(0).getLastBooking());
+        assertEquals(new BookingItemDto(11L, 3L), items.get(0).getNextBooking());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
-    void shouldKeepExistingNextBookingWhenCollisionOccurs() {
+    void getByIdShouldTakePastAndFutureBookingFromPointersWhenUserIsOwner() {
         Long ownerId = 1L;
         Long itemId = 1L;
         User owner = new User(ownerId, "Owner Name", "owner@example.com");
         Item item = new Item(itemId, "Item Name", "Item Description", true, owner, null);
-        Booking firstNextBooking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, new User(2L, "User 1", "user1@example.com"), BookingStatus.APPROVED);
-        Booking secondNextBooking = new Booking(2L, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4), item, new User(3L, "User 2", "user2@example.com"), BookingStatus.APPROVED);
+        ItemBookingPointer pointer = ItemBookingPointer.builder()
+                .itemId(itemId)
+                .lastBookingId(10L).lastBookerId(2L)
+                .pastBookingId(12L).pastBookerId(4L)
+                .build();
 
-        when(itemRepository.getItemsByOwnerId(ownerId)).thenReturn(Collections.singletonList(item));
-        when(bookingRepository.findLastBookingsForOwnerItems(ownerId)).thenReturn(new ArrayList<>());
-        when(bookingRepository.findNextBookingsForOwnerItems(ownerId)).thenReturn(Arrays.asList(firstNextBooking, secondNextBooking));
-        when(commentRepository.findByAuthorId(ownerId)).thenReturn(new ArrayList<>());
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemId(itemId)).thenReturn(new ArrayList<>());
+        when(itemBookingPointers.current(List.of(itemId))).thenReturn(Map.of(itemId, pointer));
 
-        List<ItemDto> items = itemService.getAllItems(ownerId);
+        ItemDto result = itemService.getById(ownerId, itemId);
 
-        assertNotNull(items);
-        assertFalse(items.isEmpty());
-        assertEquals(1, items.size());
-        ItemDto resultItem = items.get(0);
-        assertNotNull(resultItem.getNextBooking());
-        assertEquals(firstNextBooking.getId(), resultItem.getNextBooking().getId(), "Should keep the first next booking when collision occurs");
-
-        verify(itemRepository).getItemsByOwnerId(ownerId);
-        verify(bookingRepository).findLastBookingsForOwnerItems(ownerId);
-        verify(bookingRepository).findNextBookingsForOwnerItems(ownerId);
-        verify(commentRepository).findByAuthorId(ownerId);
+        assertEquals(new BookingItemDto(12L, 4L), result.getLastBooking());
+        assertNull(result.getNextBooking());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.schema;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// База, созданная до миграций из schema.sql, принимается за baseline V1 и должна доходить до последней версии
+class MigrationTest {
+
+    private EmbeddedDatabase database;
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testBaselinedPreMigrationSchemaMigratesToLatest() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("db/migration/V1__init_schema.sql")
+                .build();
+
+        MigrateResult result = Flyway.configure()
+                .dataSource(database)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertThat(result.success).isTrue();
+        assertThat(result.migrations).extracting(migration -> migration.version).first().isEqualTo("1.1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE INDEX_NAME = 'IDX_IDEMPOTENCY_KEYS_CREATED'", Integer.class)).isEqualTo(1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.schema;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enumeration.BookingRole;
+import ru.practicum.shareit.booking.enumeration.BookingState;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRepository;
+import ru.practicum.shareit.item.repository.api.CommentRepository;
+import ru.practicum.shareit.item.repository.api.ItemBookingPointerRepository;
+import ru.practicum.shareit.item.repository.api.ItemRepository;
+import ru.practicum.shareit.request.repository.api.RequestRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы горячих запросов: SQL берется тот, что Hibernate сгенерировал для метода репозитория,
+// и выполняется через EXPLAIN с пустыми параметрами. Тест падает, если запрос перестал использовать индекс.
+// H2 сам индексирует внешние ключи, поэтому для простых равенств проверяется колонка в условии индекса
+// и отсутствие table scan и join, а для составных индексов - их имя. Списки бронирований соединяются
+// с users и items только по первичному ключу, фильтр по владельцу идет по самой таблице bookings
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.schema.QueryPlanTest$CapturingInspector")
+class QueryPlanTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ItemBookingPointerRepository itemBookingPointerRepository;
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @BeforeEach
+    void setUp() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void testBookerBookingsUseBookerStartIndex() {
+        assertThat(planOf(() -> bookingRepository.findBookings(bookings(BookingRole.BOOKER, BookingState.ALL, null))))
+                .contains("IDX_BOOKINGS_BOOKER_START")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void testBookerBookingsAfterCursorUseBookerStartIndex() {
+        BookingCursor cursor = new BookingCursor(NOW, 100L);
+        assertThat(planOf(() -> bookingRepository.findBookings(bookings(BookingRole.BOOKER, BookingState.PAST, cursor))))
+                .contains("IDX_BOOKINGS_BOOKER_START")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void testOwnerBookingsUseOwnerStartIndex() {
+        assertThat(planOf(() -> bookingRepository.findBookings(bookings(BookingRole.OWNER, BookingState.WAITING, null))))
+                .contains("IDX_BOOKINGS_OWNER_START")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void testOwnerBookingsAfterCursorUseOwnerStartIndex() {
+        BookingCursor cursor = new BookingCursor(NOW, 100L);
+        assertThat(planOf(() -> bookingRepository.findBookings(bookings(BookingRole.OWNER, BookingState.ALL, cursor))))
+                .contains("IDX_BOOKINGS_OWNER_START")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void testItemLastBookingUsesItemEndIndex() {
+        assertThat(planOf(() -> bookingRepository.findLastBookingsByItemId(1L, NOW, PageRequest.of(0, 1))))
+                .contains("IDX_BOOKINGS_ITEM_END");
+    }
+
+    @Test
+    void testItemFinishedBookingsUseItemEndIndex() {
+        assertThat(planOf(() -> bookingRepository.findFinishedBookingsByItemAndUser(1L, 1L)))
+                .contains("IDX_BOOKINGS_ITEM_END");
+    }
+
+    @Test
+    void testItemNextBookingUsesItemStartIndex() {
+        assertThat(planOf(() -> bookingRepository.findNextBookingsByItemId(1L, NOW, PageRequest.of(0, 1))))
+                .contains("IDX_BOOKINGS_ITEM_START");
+    }
+
+    @Test
+    void testItemPastBookingsUseItemStartIndex() {
+        assertThat(planOf(() -> bookingRepository.findPastBookingsByItemId(1L, NOW, PageRequest.of(0, 1))))
+                .contains("IDX_BOOKINGS_ITEM_START");
+    }
+
+    @Test
+    void testItemNextChangeUsesItemIndex() {
+        assertIndexedBy(planOf(() -> bookingRepository.findNextChangeByItemId(1L, NOW)), "ITEM_ID");
+    }
+
+    @Test
+    void testOwnerItemsUseOwnerIndex() {
+        assertIndexedBy(planOf(() -> itemRepository.getItemsByOwnerId(1L)), "OWNER_ID");
+    }
+
+    @Test
+    void testRequestItemsUseRequestIndex() {
+        assertIndexedBy(planOf(() -> itemRepository.findByRequestId(1L)), "REQUEST_ID");
+    }
+
+    @Test
+    void testItemCommentsUseItemIndex() {
+        assertIndexedBy(planOf(() -> commentRepository.findByItemId(1L)), "ITEM_ID");
+    }
+
+    @Test
+    void testAuthorCommentsUseAuthorIndex() {
+        assertIndexedBy(planOf(() -> commentRepository.findByAuthorId(1L)), "AUTHOR_ID");
+    }
+
+    @Test
+    void testRequestorRequestsUseRequestorIndex() {
+        assertIndexedBy(planOf(() -> requestRepository.findItemRequestsByRequestorId(1L)), "REQUESTOR_ID");
+    }
+
+    @Test
+    void testExpiredItemBookingPointersUseValidUntilIndex() {
+        assertThat(planOf(() -> itemBookingPointerRepository.findExpiredItemIds(NOW, PageRequest.of(0, 500))))
+                .contains("IDX_ITEM_BOOKING_POINTERS_VALID_UNTIL");
+    }
+
+    @Test
+    void testIdempotencyPurgeUsesCreatedIndex() {
+        assertThat(planOf(() -> idempotencyRepository.deleteCreatedBefore(NOW)))
+                .contains("IDX_IDEMPOTENCY_KEYS_CREATED");
+    }
+
+    private static BookingQuery bookings(BookingRole role, BookingState state, BookingCursor cursor) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(1L)
+                .state(state)
+                .now(NOW)
+                .cursor(cursor)
+                .limit(10)
+                .build();
+    }
+
+    private static void assertIndexedBy(String plan, String column) {
+        assertThat(plan)
+                .containsPattern("/\\* PUBLIC\\.\\w+: " + column + " = \\?\\d+ \\*/")
+                .doesNotContain("tableScan", "JOIN");
+    }
+
+    // Вызывает метод репозитория и возвращает планы всех выполненных им запросов
+    private String planOf(Runnable repositoryCall) {
+        repositoryCall.run();
+        assertThat(CapturingInspector.STATEMENTS).isNotEmpty();
+        return CapturingInspector.STATEMENTS.stream()
+                .map(this::explain)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
\ No newline at end of file
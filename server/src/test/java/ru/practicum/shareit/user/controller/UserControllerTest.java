@@ -106,4 +106,17 @@ public class UserControllerTest {
 
         verify(service, times(1)).getAllUsers();
     }
+
+    @Test
+    void testGetUserIdsWhenAfterIdGivenThenReturnIds() throws Exception {
+        when(service.getUserIds(5L, 100)).thenReturn(List.of(6L, 8L));
+
+        mockMvc.perform(get("/users/ids")
+                        .param("after", "5")
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[6,8]"));
+
+        verify(service, times(1)).getUserIds(5L, 100);
+    }
 }